@@ -0,0 +1,179 @@
+package com.jodexindustries.donatecase.api.caching;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of {@link ConcurrentCache}.
+ * <p>
+ * Hit is a read of not expired value, any other read is a miss,
+ * even if stale value was returned while loading.
+ * Load time is counted from loader call to completion of its future
+ * and grouped in buckets, so percentiles are estimated by bucket upper bound
+ * @since 2.2.6.7
+ */
+public class CacheStats {
+
+    /**
+     * Upper bounds of load time buckets in milliseconds, the last bucket has no bound
+     */
+    public static final long[] LOAD_BUCKETS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000};
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder[] loadTimes = new LongAdder[LOAD_BUCKETS.length + 1];
+
+    /**
+     * Default constructor
+     */
+    public CacheStats() {
+        for (int i = 0; i < loadTimes.length; i++) {
+            loadTimes[i] = new LongAdder();
+        }
+    }
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordEviction() {
+        evictions.increment();
+    }
+
+    void recordLoad(long nanos, boolean success) {
+        if (success) {
+            loads.increment();
+        } else {
+            loadFailures.increment();
+        }
+        totalLoadTime.add(nanos);
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < LOAD_BUCKETS.length && millis >= LOAD_BUCKETS[bucket]) bucket++;
+        loadTimes[bucket].increment();
+    }
+
+    /**
+     * Get number of reads, which returned not expired value
+     *
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get number of reads without not expired value
+     *
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get part of reads, which were hits
+     *
+     * @return hit rate from 0 to 1, or 1 if there were no reads
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long requests = hits + getMisses();
+        return requests == 0 ? 1 : (double) hits / requests;
+    }
+
+    /**
+     * Get number of entries removed, because cache was full
+     *
+     * @return number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Get number of completed loads
+     *
+     * @return number of successful loads
+     */
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    /**
+     * Get number of loads completed exceptionally
+     *
+     * @return number of failed loads
+     */
+    public long getLoadFailures() {
+        return loadFailures.sum();
+    }
+
+    /**
+     * Get average load time
+     *
+     * @return average load time in milliseconds
+     */
+    public double getAverageLoadTime() {
+        long count = getLoads() + getLoadFailures();
+        return count == 0 ? 0 : totalLoadTime.sum() / 1_000_000.0 / count;
+    }
+
+    /**
+     * Get number of loads in every bucket of {@link #LOAD_BUCKETS}
+     *
+     * @return array with one more element than {@link #LOAD_BUCKETS}, the last one for slower loads
+     */
+    public long[] getLoadTimes() {
+        long[] result = new long[loadTimes.length];
+        for (int i = 0; i < loadTimes.length; i++) {
+            result[i] = loadTimes[i].sum();
+        }
+        return result;
+    }
+
+    /**
+     * Estimate load time percentile
+     *
+     * @param percentile from 0 to 100
+     * @return upper bound of bucket in milliseconds, -1 if the slowest bucket, 0 if there were no loads
+     */
+    public long getLoadTimePercentile(double percentile) {
+        long[] times = getLoadTimes();
+        long total = 0;
+        for (long time : times) total += time;
+        if (total == 0) return 0;
+
+        long target = (long) Math.ceil(total * percentile / 100);
+        long count = 0;
+        for (int i = 0; i < LOAD_BUCKETS.length; i++) {
+            count += times[i];
+            if (count >= target) return LOAD_BUCKETS[i];
+        }
+        return -1;
+    }
+
+    /**
+     * Reset all counters
+     */
+    public void reset() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        loads.reset();
+        loadFailures.reset();
+        totalLoadTime.reset();
+        for (LongAdder loadTime : loadTimes) {
+            loadTime.reset();
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.jodexindustries.donatecase.api.caching;
+
+import com.jodexindustries.donatecase.api.caching.entry.CacheEntry;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Thread-safe cache with maximum size and expiration after write.
+ * <p>
+ * Keys are split between segments, each segment has its own lock,
+ * so threads working with different keys rarely wait for each other.
+ * Every segment is a segmented LRU: new entries go to probation part,
+ * entries read again are moved to protected part.
+ * When segment is full, least recently used probation entry is evicted first,
+ * so one-time lookups can not push out frequently read entries.
+ * <p>
+ * Expired entries are not removed on read, they are still available with {@link #getPrevious(Object)}
+ * until they are overwritten, invalidated or evicted.
+ * <p>
+ * {@link #getOrRefresh(Object, Function, Object)} never waits for loading:
+ * it returns stale value while the new one is loaded, and concurrent loads of the same key share one future
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ * @since 2.2.6.7
+ */
+public class ConcurrentCache<K, V> {
+
+    /**
+     * Maximum size used by {@link #ConcurrentCache(long)}
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 32;
+
+    /**
+     * Part of max age, after which fresh entry is reloaded in background
+     */
+    private static final double REFRESH_AHEAD = 0.75;
+
+    private final Segment<K, V>[] segments;
+    private final int mask;
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private final CacheStats stats = new CacheStats();
+
+    private volatile long maxAge; // Maximum time (ticks) to keep an entry
+
+    /**
+     * Create cache with {@link #DEFAULT_MAXIMUM_SIZE}
+     *
+     * @param maxAge in ticks
+     */
+    public ConcurrentCache(long maxAge) {
+        this(maxAge, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Default constructor
+     *
+     * @param maxAge      in ticks
+     * @param maximumSize Maximum number of entries
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentCache(long maxAge, int maximumSize) {
+        if (maximumSize <= 0) throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+
+        int count = 1;
+        while (count < MAX_SEGMENTS && maximumSize / (count * 2) >= MIN_SEGMENT_SIZE) count *= 2;
+
+        this.segments = new Segment[count];
+        this.mask = count - 1;
+        int segmentSize = (maximumSize + count - 1) / count;
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(segmentSize, stats);
+        }
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Get value from cache if not expired
+     *
+     * @param key Key for getting
+     * @return Cache value
+     */
+    @Nullable
+    public V get(K key) {
+        CacheEntry<V> entry = segmentFor(key).get(key);
+        if (entry != null && isValid(entry)) {
+            stats.recordHit();
+            return entry.getValue();
+        }
+        stats.recordMiss();
+        return null;
+    }
+
+    /**
+     * Get previous value from cache map, if present
+     *
+     * @param key Key for getting
+     * @return Previous value, may be expired
+     */
+    @Nullable
+    public V getPrevious(K key) {
+        CacheEntry<V> entry = segmentFor(key).get(key);
+        if (entry == null) return null;
+        return entry.getValue();
+    }
+
+    /**
+     * Put new value for key
+     *
+     * @param key   Key for putting
+     * @param value Value for putting
+     */
+    public void put(K key, V value) {
+        segmentFor(key).put(key, new CacheEntry<>(value, System.currentTimeMillis()));
+    }
+
+    /**
+     * Get value without waiting for loading.
+     * <ul>
+     *     <li>Fresh value is returned as is. If it is close to expiration, it is reloaded in background</li>
+     *     <li>Expired value is returned while new one is loaded</li>
+     *     <li>Without any value, result of loader is returned if it is already completed, default value otherwise</li>
+     * </ul>
+     *
+     * @param key          Key for getting
+     * @param loader       Loads value of key, called only if there is no load of this key in progress
+     * @param defaultValue Value returned, when nothing is cached and loader is not completed yet
+     * @return Cached, loaded or default value
+     */
+    public V getOrRefresh(K key, Function<? super K, CompletableFuture<V>> loader, V defaultValue) {
+        CacheEntry<V> entry = segmentFor(key).get(key);
+        if (entry != null) {
+            if (isValid(entry)) {
+                stats.recordHit();
+            } else {
+                stats.recordMiss();
+            }
+
+            long age = System.currentTimeMillis() - entry.getTimestamp();
+            if (age > maxAge * 50 * REFRESH_AHEAD) refresh(key, loader);
+            return entry.getValue();
+        }
+        stats.recordMiss();
+        return refresh(key, loader).getNow(defaultValue);
+    }
+
+    /**
+     * Load value of key and put it to cache.
+     * If key is already loading, returns the same future instead of calling loader again
+     *
+     * @param key    Key for loading
+     * @param loader Loads value of key
+     * @return CompletableFuture of loaded value
+     */
+    public CompletableFuture<V> refresh(K key, Function<? super K, CompletableFuture<V>> loader) {
+        CompletableFuture<V> future = loading.get(key);
+        if (future != null) return future;
+
+        CompletableFuture<V> created = new CompletableFuture<>();
+        future = loading.putIfAbsent(key, created);
+        if (future != null) return future;
+
+        long start = System.nanoTime();
+        CompletableFuture<V> loaded;
+        try {
+            loaded = loader.apply(key);
+        } catch (Throwable throwable) {
+            loaded = new CompletableFuture<>();
+            loaded.completeExceptionally(throwable);
+        }
+
+        loaded.whenComplete((value, throwable) -> {
+            // value is not cached, if key was invalidated while loading
+            boolean current = loading.remove(key, created);
+            stats.recordLoad(System.nanoTime() - start, throwable == null);
+            if (throwable != null) {
+                created.completeExceptionally(throwable);
+                return;
+            }
+            if (current && value != null) put(key, value);
+            created.complete(value);
+        });
+        return created;
+    }
+
+    /**
+     * Remove value of key, even previous one
+     *
+     * @param key Key for removing
+     */
+    public void invalidate(K key) {
+        loading.remove(key);
+        segmentFor(key).remove(key);
+    }
+
+    /**
+     * Setting max age of cache
+     *
+     * @param maxAge in ticks
+     */
+    public void setMaxAge(long maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Get max age of cache
+     *
+     * @return max age in ticks
+     */
+    public long getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Get hit, miss, eviction and load time counters of this cache
+     *
+     * @return cache statistics
+     */
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Get number of entries in cache, including expired ones
+     *
+     * @return number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Remove all expired entries.
+     * Not required for bounded memory, only frees it earlier
+     */
+    public void cleanUp() {
+        for (Segment<K, V> segment : segments) {
+            segment.removeIf(this::isExpired);
+        }
+    }
+
+    /**
+     * Removes all the mappings from this map (optional operation).
+     * The map will be empty after this call returns.
+     */
+    public void clear() {
+        loading.clear();
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private boolean isValid(CacheEntry<V> entry) {
+        return !isExpired(entry);
+    }
+
+    private boolean isExpired(CacheEntry<V> entry) {
+        // 1000 milliseconds = 1 second = 20 ticks
+        // 1000 / 20 = 50 milliseconds per tick
+        return System.currentTimeMillis() - entry.getTimestamp() > (maxAge * 50);
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & mask];
+    }
+
+    /**
+     * Segmented LRU guarded by its own monitor.
+     * Both maps are in access order, so the first entry is always the least recently used
+     */
+    private static final class Segment<K, V> {
+        private final LinkedHashMap<K, CacheEntry<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<K, CacheEntry<V>> protectedPart = new LinkedHashMap<>(16, 0.75f, true);
+        private final int capacity;
+        private final int protectedCapacity;
+        private final CacheStats stats;
+
+        private Segment(int capacity, CacheStats stats) {
+            this.capacity = capacity;
+            this.stats = stats;
+            this.protectedCapacity = Math.max(1, capacity * 4 / 5);
+        }
+
+        private synchronized CacheEntry<V> get(K key) {
+            CacheEntry<V> entry = protectedPart.get(key);
+            if (entry != null) return entry;
+
+            entry = probation.remove(key);
+            if (entry != null) promote(key, entry);
+            return entry;
+        }
+
+        private synchronized void put(K key, CacheEntry<V> entry) {
+            if (protectedPart.containsKey(key)) {
+                protectedPart.put(key, entry);
+                return;
+            }
+            if (probation.remove(key) != null) {
+                promote(key, entry);
+                return;
+            }
+            probation.put(key, entry);
+            evict();
+        }
+
+        private synchronized void remove(K key) {
+            if (protectedPart.remove(key) == null) probation.remove(key);
+        }
+
+        private synchronized int size() {
+            return probation.size() + protectedPart.size();
+        }
+
+        private synchronized void removeIf(Predicate<CacheEntry<V>> predicate) {
+            probation.values().removeIf(predicate);
+            protectedPart.values().removeIf(predicate);
+        }
+
+        private synchronized void clear() {
+            probation.clear();
+            protectedPart.clear();
+        }
+
+        private void promote(K key, CacheEntry<V> entry) {
+            protectedPart.put(key, entry);
+            if (protectedPart.size() > protectedCapacity) {
+                // Demote least recently used protected entry, it gets one more chance in probation
+                Iterator<Map.Entry<K, CacheEntry<V>>> iterator = protectedPart.entrySet().iterator();
+                Map.Entry<K, CacheEntry<V>> eldest = iterator.next();
+                iterator.remove();
+                probation.put(eldest.getKey(), eldest.getValue());
+            }
+            evict();
+        }
+
+        private void evict() {
+            Iterator<Map.Entry<K, CacheEntry<V>>> iterator = probation.entrySet().iterator();
+            while (probation.size() + protectedPart.size() > capacity && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                stats.recordEviction();
+            }
+        }
+    }
+}
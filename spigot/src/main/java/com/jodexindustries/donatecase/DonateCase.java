@@ -72,6 +72,11 @@ public class DonateCase extends JavaPlugin {
 
     public boolean usePackets = false;
     public DatabaseType databaseType = DatabaseType.SQLITE;
+    /**
+     * Name of registered storage, selected in Config.yml
+     * @since 2.2.6.7
+     */
+    public String storageType = "SQLITE";
 
     private boolean spawnProtectionDisabled = false;
 
@@ -134,6 +139,7 @@ public class DonateCase extends JavaPlugin {
         getServer().getPluginManager().callEvent(donateCaseDisableEvent);
 
         api.getAddonManager().unloadAddons(AddonManager.PowerReason.DONATE_CASE);
+        AnimationTicker.stop();
         api.getAnimationManager().unregisterAnimations();
         api.getSubCommandManager().unregisterSubCommands();
         api.getActionManager().unregisterActions();
@@ -141,6 +147,7 @@ public class DonateCase extends JavaPlugin {
         api.getGuiTypedItemManager().unregisterItems();
 
         if (papi != null) papi.unregister();
+        // flushes pending keys and open counts before closing connection
         if (database != null) database.close();
         if (hologramManager != null) hologramManager.removeAllHolograms();
         if (packetEventsSupport != null) packetEventsSupport.unload();
@@ -221,6 +228,7 @@ public class DonateCase extends JavaPlugin {
     public void loadConfig() {
         config = new Config(this);
 
+        if (database != null) database.close();
         database = new CaseDatabase(this);
         database.connect();
 
@@ -260,6 +268,8 @@ public class DonateCase extends JavaPlugin {
         AddonsCommand.register(manager);
         AddonCommand.register(manager);
         RegistryCommand.register(manager);
+        CacheStatsCommand.register(manager);
+        SimulateCommand.register(manager);
 
         Logger.log("&aRegistered &c" + SubCommandManager.registeredSubCommands.size() + " &acommands");
     }
@@ -1,6 +1,7 @@
 package com.jodexindustries.donatecase.animations;
 
 import com.jodexindustries.donatecase.api.AnimationManager;
+import com.jodexindustries.donatecase.api.AnimationTicker;
 import com.jodexindustries.donatecase.api.Case;
 import com.jodexindustries.donatecase.api.armorstand.ArmorStandEulerAngle;
 import com.jodexindustries.donatecase.api.armorstand.ArmorStandCreator;
@@ -11,7 +12,6 @@ import org.bukkit.*;
 import org.bukkit.entity.Firework;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.meta.FireworkMeta;
-import org.bukkit.scheduler.BukkitTask;
 
 import java.util.function.Consumer;
 
@@ -43,10 +43,10 @@ public class FireworkAnimation extends JavaAnimation {
         as.setVisible(false);
         as.setGravity(false);
         as.spawn();
-        Bukkit.getScheduler().runTaskTimer(Case.getInstance(), new Task(as), 0L, 2L);
+        AnimationTicker.schedule(new Task(as), 0L, 2L);
     }
 
-    private class Task implements Consumer<BukkitTask> {
+    private class Task implements Consumer<AnimationTicker.Task> {
 
         private int i; //ticks count
         private final Location l;
@@ -60,7 +60,7 @@ public class FireworkAnimation extends JavaAnimation {
         }
 
         @Override
-        public void accept(BukkitTask task) {
+        public void accept(AnimationTicker.Task task) {
             if (this.i == 1) {
                 Firework firework = world.spawn(l, Firework.class);
                 FireworkMeta data = firework.getFireworkMeta();
@@ -1,6 +1,7 @@
 package com.jodexindustries.donatecase.animations;
 
 import com.jodexindustries.donatecase.api.AnimationManager;
+import com.jodexindustries.donatecase.api.AnimationTicker;
 import com.jodexindustries.donatecase.api.Case;
 import com.jodexindustries.donatecase.api.armorstand.ArmorStandEulerAngle;
 import com.jodexindustries.donatecase.api.armorstand.ArmorStandCreator;
@@ -10,7 +11,6 @@ import com.jodexindustries.donatecase.api.data.animation.CaseAnimation;
 import com.jodexindustries.donatecase.tools.Tools;
 import org.bukkit.*;
 import org.bukkit.inventory.EquipmentSlot;
-import org.bukkit.scheduler.BukkitTask;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -49,10 +49,10 @@ public class RainlyAnimation extends JavaAnimation {
         as.setSmall(small);
         as.spawn();
 
-        Bukkit.getScheduler().runTaskTimer(Case.getInstance(), new Task(as, particle), 0L, 2L);
+        AnimationTicker.schedule(new Task(as, particle), 0L, 2L);
     }
 
-    private class Task implements Consumer<BukkitTask> {
+    private class Task implements Consumer<AnimationTicker.Task> {
 
         private int i = 0;  // tick counter
         private double t = 0; // time variable for firework effect
@@ -75,11 +75,13 @@ public class RainlyAnimation extends JavaAnimation {
         }
 
         @Override
-        public void accept(BukkitTask task) {
-            // Spawn rain and cloud particles
-            for (Location rain : rains) {
-                world.spawnParticle(particle, rain, 1);
-                world.spawnParticle(Particle.CLOUD, rain.clone().add(0, 0.5, 0), 0);
+        public void accept(AnimationTicker.Task task) {
+            // Spawn rain and cloud particles, skipped if server tick is overloaded
+            if (!AnimationTicker.isOverBudget()) {
+                for (Location rain : rains) {
+                    world.spawnParticle(particle, rain, 1);
+                    world.spawnParticle(Particle.CLOUD, rain.clone().add(0, 0.5, 0), 0);
+                }
             }
 
             loc.setYaw(loc.getYaw() + 20.0F); // Rotate the armor stand
@@ -158,7 +160,9 @@ public class RainlyAnimation extends JavaAnimation {
                 double x = 0.09 * (9 - t * 2.5) * Math.cos(t + phi);
                 double z = 0.09 * (9 - t * 2.5) * Math.sin(t + phi);
                 particleLocation.add(x, 0.0, z);
-                world.spawnParticle(Particle.FIREWORKS_SPARK, loc.clone().add(0.0, 0.4, 0.0), 1, 0.1, 0.1, 0.1, 0.0);
+                if (!AnimationTicker.isOverBudget()) {
+                    world.spawnParticle(Particle.FIREWORKS_SPARK, loc.clone().add(0.0, 0.4, 0.0), 1, 0.1, 0.1, 0.1, 0.0);
+                }
                 particleLocation.subtract(x, 0.0, z);
 
                 if (t >= 22) {
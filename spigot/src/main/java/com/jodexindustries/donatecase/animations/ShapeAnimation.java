@@ -1,6 +1,7 @@
 package com.jodexindustries.donatecase.animations;
 
 import com.jodexindustries.donatecase.api.AnimationManager;
+import com.jodexindustries.donatecase.api.AnimationTicker;
 import com.jodexindustries.donatecase.api.Case;
 import com.jodexindustries.donatecase.api.armorstand.ArmorStandEulerAngle;
 import com.jodexindustries.donatecase.api.armorstand.ArmorStandCreator;
@@ -15,7 +16,6 @@ import org.bukkit.Material;
 import org.bukkit.Particle;
 import org.bukkit.World;
 import org.bukkit.inventory.EquipmentSlot;
-import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.function.Consumer;
@@ -50,12 +50,11 @@ public class ShapeAnimation extends JavaAnimation {
         final Color orangeColor = Tools.fromRGBString(orangeRgbString, Color.ORANGE);
         final Color whiteColor = Tools.fromRGBString(whiteRgbString, Color.WHITE);
 
-        Bukkit.getScheduler().runTaskTimer(Case.getInstance(),
-                new Task(as, orangeColor, whiteColor),
+        AnimationTicker.schedule(new Task(as, orangeColor, whiteColor),
                 0L, 2L);
     }
 
-    private class Task implements Consumer<BukkitTask> {
+    private class Task implements Consumer<AnimationTicker.Task> {
 
         private int tick;
         private double tail;
@@ -86,7 +85,7 @@ public class ShapeAnimation extends JavaAnimation {
         }
 
         @Override
-        public void accept(BukkitTask task) {
+        public void accept(AnimationTicker.Task task) {
             if (tick == 16) {
                 if (getWinItem().getMaterial().getItemStack().getType() != Material.AIR) {
                     as.setEquipment(itemSlot, getWinItem().getMaterial().getItemStack());
@@ -113,7 +112,7 @@ public class ShapeAnimation extends JavaAnimation {
                 as.setCustomName(winGroupDisplayName);
                 as.updateMeta();
 
-                if (tick <= 8) {
+                if (tick <= 8 && !AnimationTicker.isOverBudget()) {
                     Particle.DustOptions dustOptions = new Particle.DustOptions(orangeColor, orangeSize);
                     world.spawnParticle(Particle.REDSTONE, l.clone().add(0.0, 0.4, 0.0), 5, 0.3, 0.3, 0.3, 0.0, dustOptions);
                 }
@@ -129,7 +128,7 @@ public class ShapeAnimation extends JavaAnimation {
                 as.teleport(l);
             }
 
-            if (tick <= 15) {
+            if (tick <= 15 && !AnimationTicker.isOverBudget()) {
                 tail += 0.25;
                 Location loc = l.clone().add(0.0, 0.5, 0.0);
 
@@ -1,6 +1,7 @@
 package com.jodexindustries.donatecase.animations;
 
 import com.jodexindustries.donatecase.api.AnimationManager;
+import com.jodexindustries.donatecase.api.AnimationTicker;
 import com.jodexindustries.donatecase.api.Case;
 import com.jodexindustries.donatecase.api.armorstand.ArmorStandCreator;
 import com.jodexindustries.donatecase.api.armorstand.ArmorStandEulerAngle;
@@ -8,14 +9,12 @@ import com.jodexindustries.donatecase.api.data.CaseData;
 import com.jodexindustries.donatecase.api.data.JavaAnimation;
 import com.jodexindustries.donatecase.api.data.animation.CaseAnimation;
 import com.jodexindustries.donatecase.tools.Tools;
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Particle;
 import org.bukkit.Sound;
 import org.bukkit.World;
 import org.bukkit.inventory.EquipmentSlot;
-import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 
@@ -59,10 +58,10 @@ public class WheelAnimation extends JavaAnimation {
         wheelType = WheelType.getType(getSettings().getString("Type", "RANDOM"));
         armorStandEulerAngle = Tools.getArmorStandEulerAngle(getSettings().getConfigurationSection("Pose"));
         itemSlot = EquipmentSlot.valueOf(getSettings().getString("ItemSlot", "HEAD").toUpperCase());
-        Bukkit.getScheduler().runTaskTimer(Case.getInstance(), new Task(), 0L, 0L);
+        AnimationTicker.schedule(new Task(), 0L, 0L);
     }
 
-    private class Task implements Consumer<BukkitTask> {
+    private class Task implements Consumer<AnimationTicker.Task> {
 
         private final Location loc = getLocation().clone().add(0.5, 0, 0.5);
         private final World world;
@@ -90,6 +89,16 @@ public class WheelAnimation extends JavaAnimation {
         private final double rotationThreshold;
         private final double offset;
 
+        // wheel plane is fixed for the whole run: x goes along rotation axis, y along case direction
+        private double axisX, axisY, axisZ;
+        private double directionX, directionY, directionZ;
+        // sin and cos of every stand offset, stand angle is tick angle + offset
+        private double[] offsetSin;
+        private double[] offsetCos;
+        // reused positions: one for every stand and one for flame particles
+        private Location[] positions;
+        private Location flameLocation;
+
         public Task() {
             float pitch = Math.round(getLocation().getPitch() / 90.0f) * 90.0f;
             float yaw = Math.round(getLocation().getYaw() / 90.0f) * 90.0f;
@@ -102,10 +111,34 @@ public class WheelAnimation extends JavaAnimation {
             offset = 2 * Math.PI / armorStands.size();
 
             world = loc.getWorld() != null ? loc.getWorld() : getPlayer().getWorld();
+
+            initializeTrajectory();
+        }
+
+        private void initializeTrajectory() {
+            Vector direction = loc.getDirection();
+            Vector axis = direction.clone().crossProduct(new Vector(0, 1, 0)).normalize();
+            axisX = axis.getX();
+            axisY = axis.getY();
+            axisZ = axis.getZ();
+            directionX = direction.getX();
+            directionY = direction.getY();
+            directionZ = direction.getZ();
+
+            int size = armorStands.size();
+            offsetSin = new double[size];
+            offsetCos = new double[size];
+            positions = new Location[size];
+            for (int i = 0; i < size; i++) {
+                offsetSin[i] = Math.sin(i * offset);
+                offsetCos[i] = Math.cos(i * offset);
+                positions[i] = flocation.clone();
+            }
+            flameLocation = flocation.clone();
         }
 
         @Override
-        public void accept(BukkitTask task) {
+        public void accept(AnimationTicker.Task task) {
             ticks++;
             double angle = ticks / 20.0  * speedAx * 2 * Math.PI;
 
@@ -160,20 +193,29 @@ public class WheelAnimation extends JavaAnimation {
         }
 
         private void spawnFlameEffect(double theta) {
+            if (AnimationTicker.isOverBudget()) return;
+
             double dx = (radiusAx / 1.1) * Math.sin(theta);
             double dy = (radiusAx / 1.1) * Math.cos(theta);
-            Location particleLocation = flocation.clone().add(dx, yAx, dy);
-            world.spawnParticle(flameParticle, particleLocation, 1, 0, 0, 0, 0, null);
+            flameLocation.setX(flocation.getX() + dx);
+            flameLocation.setY(flocation.getY() + yAx);
+            flameLocation.setZ(flocation.getZ() + dy);
+            world.spawnParticle(flameParticle, flameLocation, 1, 0, 0, 0, 0, null);
         }
 
         private void moveArmorStands(double angle) {
-            for (ArmorStandCreator entity : armorStands) {
-                double x = radius * Math.sin(angle);
-                double y = radius * Math.cos(angle);
-
-                Vector rotationAxis = loc.getDirection().crossProduct(new Vector(0, 1, 0)).normalize();
-                Location newLoc = flocation.clone().add(rotationAxis.multiply(x).add(loc.getDirection().multiply(y)));
-                entity.teleport(newLoc);
+            double sin = Math.sin(angle);
+            double cos = Math.cos(angle);
+            for (int i = 0; i < armorStands.size(); i++) {
+                // sin(a + b) and cos(a + b) from precomputed offsets
+                double x = radius * (sin * offsetCos[i] + cos * offsetSin[i]);
+                double y = radius * (cos * offsetCos[i] - sin * offsetSin[i]);
+
+                Location position = positions[i];
+                position.setX(flocation.getX() + axisX * x + directionX * y);
+                position.setY(flocation.getY() + axisY * x + directionY * y);
+                position.setZ(flocation.getZ() + axisZ * x + directionZ * y);
+                armorStands.get(i).teleport(position);
                 angle += offset;
 
                 double currentAngle = angle - baseAngle;
@@ -184,7 +226,7 @@ public class WheelAnimation extends JavaAnimation {
             }
         }
 
-        private void endAnimation(BukkitTask task) {
+        private void endAnimation(AnimationTicker.Task task) {
             task.cancel();
             for (ArmorStandCreator stand : armorStands) {
                 stand.remove();
@@ -5,12 +5,12 @@ import com.jodexindustries.donatecase.api.data.action.ActionExecutor;
 import com.jodexindustries.donatecase.api.data.action.CaseAction;
 import com.jodexindustries.donatecase.api.events.CaseActionRegisteredEvent;
 import com.jodexindustries.donatecase.api.events.CaseActionUnregisteredEvent;
+import com.jodexindustries.donatecase.tools.PrefixRegistry;
 import org.bukkit.Bukkit;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -41,10 +41,11 @@ import java.util.Map;
  * Default actions like: {@code [command], [broadcast], [message], [title], etc.} loading here.
  */
 public class ActionManager {
+    private static final PrefixRegistry<CaseAction> registry = new PrefixRegistry<>();
     /**
      * Map of all registered actions
      */
-    public static final Map<String, CaseAction> registeredActions = new HashMap<>();
+    public static final Map<String, CaseAction> registeredActions = registry.getMap();
     private final Addon addon;
 
     /**
@@ -66,7 +67,7 @@ public class ActionManager {
     public void registerAction(String name, ActionExecutor actionExecutor, String description) {
         if (!isRegistered(name)) {
             CaseAction caseAction = new CaseAction(actionExecutor, addon, name, description);
-            registeredActions.put(name, caseAction);
+            registry.register(name, caseAction);
             CaseActionRegisteredEvent event = new CaseActionRegisteredEvent(caseAction);
             Bukkit.getPluginManager().callEvent(event);
         } else {
@@ -81,7 +82,7 @@ public class ActionManager {
      */
     public void unregisterAction(String name) {
         if (isRegistered(name)) {
-            registeredActions.remove(name);
+            registry.unregister(name);
             CaseActionUnregisteredEvent event = new CaseActionUnregisteredEvent(name);
             Bukkit.getServer().getPluginManager().callEvent(event);
         } else {
@@ -104,7 +105,7 @@ public class ActionManager {
      * @return boolean
      */
     public static boolean isRegistered(String name) {
-        return registeredActions.containsKey(name);
+        return registry.isRegistered(name);
     }
 
     /**
@@ -115,16 +116,28 @@ public class ActionManager {
      */
     @Nullable
     public static CaseAction getRegisteredAction(@NotNull String action) {
-        return registeredActions.get(action);
+        return registry.get(action);
+    }
+
+    /**
+     * Get version of registered actions, it is changed on every registration and unregistration.
+     * Used by {@link com.jodexindustries.donatecase.api.data.action.CompiledAction} to find executor again
+     *
+     * @return registry version
+     * @since 2.2.6.7
+     */
+    public static int getVersion() {
+        return registry.getVersion();
     }
 
     /**
      * Get registered action by string start
+     * If several names match, the longest one is returned
      *
      * @param string String to be parsed
      * @return Case action name
      */
     public static @Nullable String getByStart(@NotNull final String string) {
-        return registeredActions.keySet().stream().filter(string::startsWith).findFirst().orElse(null);
+        return registry.longestPrefixOf(string);
     }
 }
\ No newline at end of file
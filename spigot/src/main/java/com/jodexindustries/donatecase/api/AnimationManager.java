@@ -3,6 +3,7 @@ package com.jodexindustries.donatecase.api;
 import com.jodexindustries.donatecase.api.addon.Addon;
 import com.jodexindustries.donatecase.api.data.*;
 import com.jodexindustries.donatecase.api.data.animation.CaseAnimation;
+import com.jodexindustries.donatecase.api.data.animation.TickingAnimation;
 import com.jodexindustries.donatecase.api.events.AnimationPreStartEvent;
 import com.jodexindustries.donatecase.api.events.AnimationRegisteredEvent;
 import com.jodexindustries.donatecase.api.events.AnimationStartEvent;
@@ -119,6 +120,8 @@ public class AnimationManager {
             return false;
         }
 
+        // sample with cached sampler of the original case, the clone would build its own on every open
+        String winItemName = caseData.getRandomItem().getItemName();
         caseData = caseData.clone();
         caseData.setItems(Tools.sortItemsByIndex(caseData.getItems()));
         String animation = caseData.getAnimation();
@@ -129,7 +132,9 @@ public class AnimationManager {
             return false;
         }
 
-        CaseData.Item winItem = caseData.getRandomItem();
+        CaseData.Item winItem = caseData.getItem(winItemName);
+        // item stored under another key by addon
+        if (winItem == null) winItem = caseData.getRandomItem();
         winItem.getMaterial().setDisplayName(Case.getInstance().papi.setPlaceholders(player, winItem.getMaterial().getDisplayName()));
         AnimationPreStartEvent preStartEvent = new AnimationPreStartEvent(player, caseData, block, winItem);
         Bukkit.getPluginManager().callEvent(preStartEvent);
@@ -168,6 +173,7 @@ public class AnimationManager {
                     javaAnimation.init(player, caseLocation,
                             uuid, caseData, preStartEvent.getWinItem(), settings);
                     javaAnimation.start();
+                    if (javaAnimation instanceof TickingAnimation) AnimationTicker.schedule((TickingAnimation) javaAnimation);
 
                 } else {
                     throw new IllegalArgumentException("Animation executable class does not exist!");
@@ -0,0 +1,204 @@
+package com.jodexindustries.donatecase.api;
+
+import com.jodexindustries.donatecase.api.armorstand.PacketBundle;
+import com.jodexindustries.donatecase.api.data.animation.TickingAnimation;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * One main thread task, which drives all running animations.
+ * <p>
+ * Every server tick animations are ticked one by one, until time budget is spent
+ * ({@code DonateCase.AnimationTicker.Budget} in Config.yml, milliseconds).
+ * Animations, which did not fit, are deferred: they are ticked first on the next server tick,
+ * so all animations keep going, just a bit slower under load.
+ * At least one animation is ticked every server tick, even if budget is already spent.
+ * Animations may also shed optional work with {@link #isOverBudget()}
+ * @since 2.2.6.7
+ */
+public final class AnimationTicker {
+    private static final List<Task> tasks = new ArrayList<>();
+    private static BukkitTask timer;
+    private static long budget;
+    private static long deadline;
+    private static boolean ticking;
+    private static long currentTick;
+
+    private AnimationTicker() {}
+
+    /**
+     * Schedule animation
+     *
+     * @param animation Animation to tick
+     * @return task, which can be cancelled
+     */
+    @NotNull
+    public static Task schedule(@NotNull TickingAnimation animation) {
+        return add(new Task(animation, null, animation.getPeriod()));
+    }
+
+    /**
+     * Schedule task written for {@code BukkitScheduler#runTaskTimer(Plugin, Consumer, long, long)}.
+     * Consumer cancels itself with {@link Task#cancel()}, like with BukkitTask
+     *
+     * @param consumer Task body
+     * @param delay    Ticks before first run
+     * @param period   Ticks between runs, 0 is the same as 1
+     * @return task, which can be cancelled
+     */
+    @NotNull
+    public static Task schedule(@NotNull Consumer<Task> consumer, long delay, long period) {
+        Task task = new Task(null, consumer, period);
+        task.wait = delay;
+        return add(task);
+    }
+
+    private static Task add(Task task) {
+        tasks.add(task);
+        if (timer == null) {
+            budget = (long) (Case.getConfig().getConfig().getDouble("DonateCase.AnimationTicker.Budget", 5) * 1_000_000);
+            timer = Bukkit.getScheduler().runTaskTimer(Case.getInstance(), AnimationTicker::tick, 0L, 1L);
+        }
+        return task;
+    }
+
+    /**
+     * Check whether time budget of current server tick is spent.
+     * Animations should skip optional work, like particles and sounds, when it returns true
+     *
+     * @return true, if called while ticking and budget is spent
+     */
+    public static boolean isOverBudget() {
+        return ticking && System.nanoTime() > deadline;
+    }
+
+    /**
+     * Get number of ticks made by ticker, used to measure time in animation ticks
+     *
+     * @return tick counter
+     */
+    public static long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Get number of scheduled animations
+     *
+     * @return number of tasks
+     */
+    public static int size() {
+        return tasks.size();
+    }
+
+    /**
+     * Cancel all animations and stop ticker
+     */
+    public static void stop() {
+        for (Task task : tasks) task.cancelled = true;
+        tasks.clear();
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+    }
+
+    private static void tick() {
+        // tasks scheduled while ticking are added to the list and run from the next tick
+        Task[] current = tasks.toArray(new Task[0]);
+        currentTick++;
+        deadline = System.nanoTime() + budget;
+        ticking = true;
+        boolean ran = false;
+        try {
+            // deferred tasks first, then the rest
+            for (Task task : current) {
+                if (task.deferred) ran |= run(task, ran);
+            }
+            for (Task task : current) {
+                // deferred task, which already ran in the first loop, must not run twice in one tick
+                if (task.deferred || task.cancelled || task.lastTick == currentTick) continue;
+                if (--task.wait > 0) continue;
+                ran |= run(task, ran);
+            }
+        } finally {
+            ticking = false;
+        }
+
+        tasks.removeIf(task -> task.cancelled);
+        if (tasks.isEmpty() && timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+    }
+
+    /**
+     * @return true, if task was ticked
+     */
+    private static boolean run(Task task, boolean ran) {
+        if (task.cancelled) return false;
+        if (ran && System.nanoTime() > deadline) {
+            task.deferred = true;
+            return false;
+        }
+
+        task.deferred = false;
+        task.wait = task.period;
+        task.lastTick = currentTick;
+        // updates of all packet armor stands of one animation go in one bundle
+        PacketBundle.begin();
+        try {
+            if (task.animation != null) {
+                if (!task.animation.tick()) task.cancel();
+            } else {
+                task.consumer.accept(task);
+            }
+        } catch (Throwable t) {
+            task.cancel();
+            Case.getInstance().getLogger().log(Level.WARNING, "Error with ticking animation", t);
+        } finally {
+            PacketBundle.end();
+        }
+        return true;
+    }
+
+    /**
+     * Scheduled animation
+     */
+    public static final class Task {
+        private final TickingAnimation animation;
+        private final Consumer<Task> consumer;
+        private final long period;
+        private long wait;
+        private long lastTick = -1;
+        private boolean deferred;
+        private boolean cancelled;
+
+        private Task(TickingAnimation animation, Consumer<Task> consumer, long period) {
+            this.animation = animation;
+            this.consumer = consumer;
+            this.period = Math.max(1, period);
+        }
+
+        /**
+         * Stop ticking of this animation
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Check whether task is cancelled or finished
+         *
+         * @return true, if cancelled
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
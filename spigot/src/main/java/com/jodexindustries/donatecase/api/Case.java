@@ -3,13 +3,15 @@ package com.jodexindustries.donatecase.api;
 import com.jodexindustries.donatecase.DonateCase;
 import com.jodexindustries.donatecase.api.data.*;
 import com.jodexindustries.donatecase.api.data.action.ActionExecutor;
+import com.jodexindustries.donatecase.api.data.action.CompiledAction;
 import com.jodexindustries.donatecase.api.events.AnimationEndEvent;
 import com.jodexindustries.donatecase.api.events.KeysTransactionEvent;
 import com.jodexindustries.donatecase.config.Config;
 import com.jodexindustries.donatecase.database.CaseDatabase;
+import com.jodexindustries.donatecase.database.PlayerSession;
 import com.jodexindustries.donatecase.gui.CaseGui;
 import com.jodexindustries.donatecase.tools.*;
-import com.jodexindustries.donatecase.api.caching.SimpleCache;
+import com.jodexindustries.donatecase.api.caching.ConcurrentCache;
 import com.jodexindustries.donatecase.api.caching.entry.InfoEntry;
 import net.luckperms.api.model.user.User;
 import org.bukkit.Bukkit;
@@ -18,6 +20,7 @@ import org.bukkit.OfflinePlayer;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.ArmorStand;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
@@ -27,6 +30,7 @@ import org.jetbrains.annotations.Nullable;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -61,17 +65,36 @@ public class Case {
     /**
      * Cache map for storing number of player's keys
      */
-    public final static SimpleCache<InfoEntry, Integer> keysCache = new SimpleCache<>(20);
+    public final static ConcurrentCache<InfoEntry, Integer> keysCache = new ConcurrentCache<>(20);
 
     /**
      * Cache map for storing number of player's cases opens
      */
-    public final static SimpleCache<InfoEntry, Integer> openCache = new SimpleCache<>(20);
+    public final static ConcurrentCache<InfoEntry, Integer> openCache = new ConcurrentCache<>(20);
 
     /**
      * Cache map for storing cases histories
      */
-    public final static SimpleCache<Integer, List<CaseData.HistoryData>> historyCache = new SimpleCache<>(20);
+    public final static ConcurrentCache<Integer, List<CaseData.HistoryData>> historyCache = new ConcurrentCache<>(20, 1);
+
+    /**
+     * Get all caches by their names: keys, open and history
+     * @return Map of cache name and cache
+     * @since 2.2.6.7
+     */
+    public static Map<String, ConcurrentCache<?, ?>> getCaches() {
+        Map<String, ConcurrentCache<?, ?>> caches = new LinkedHashMap<>();
+        caches.put("keys", keysCache);
+        caches.put("open", openCache);
+        caches.put("history", historyCache);
+        return caches;
+    }
+
+    /**
+     * Index of created cases by block, built from Cases.yml on first lookup after (re)load
+     */
+    private static final CaseLocationIndex locationIndex = new CaseLocationIndex();
+    private static YamlConfiguration indexedCases;
 
     /**
      * Default constructor, but actually not used. All methods are static.
@@ -95,6 +118,7 @@ public class Case {
         getConfig().getCases().set("DonateCase.Cases." + caseName + ".location", tempLocation);
         getConfig().getCases().set("DonateCase.Cases." + caseName + ".type", type);
         getConfig().saveCases();
+        getLocationIndex().put(caseName, type, tempLocation);
     }
 
     /**
@@ -104,7 +128,12 @@ public class Case {
      * @param keys Number of keys
      */
     public static void setKeys(String caseType, String player, int keys) {
-        getKeysAsync(caseType, player).thenAcceptAsync((from) -> setKeys(caseType, player, keys, from));
+        if (!hasKeysListeners()) {
+            getDatabase().setKeys(caseType, player, keys);
+            keysCache.invalidate(new InfoEntry(player, caseType));
+            return;
+        }
+        logFailure(getDatabase().getKeysForChange(caseType, player).thenAcceptAsync((from) -> setKeys(caseType, player, keys, from)));
     }
 
     /**
@@ -120,6 +149,7 @@ public class Case {
         Bukkit.getPluginManager().callEvent(event);
         if(!event.isCancelled()) {
             getDatabase().setKeys(caseType, player, event.after());
+            keysCache.invalidate(new InfoEntry(player, caseType));
         }
     }
 
@@ -130,7 +160,32 @@ public class Case {
      * @param keys Number of keys
      */
     public static void addKeys(String caseType, String player, int keys) {
-        getKeysAsync(caseType, player).thenAcceptAsync(before -> setKeys(caseType, player, before + keys, before));
+        logFailure(changeKeys(caseType, player, keys, false));
+    }
+
+    /**
+     * Add case keys to many players at once (async).
+     * All keys are written in one database transaction.
+     * If someone listens {@link KeysTransactionEvent}, events are called one by one in the same async thread
+     * @param caseType Case type
+     * @param keys Map of player name and number of keys to add
+     * @return CompletableFuture, completed when keys are written
+     * @since 2.2.6.7
+     */
+    public static CompletableFuture<Void> addKeysBulk(String caseType, Map<String, Integer> keys) {
+        keys.keySet().forEach(player -> keysCache.invalidate(new InfoEntry(player, caseType)));
+        if (!hasKeysListeners()) return getDatabase().addKeysBulk(caseType, keys);
+
+        return getDatabase().getKeysBulk(caseType, keys.keySet()).thenComposeAsync(before -> {
+            Map<String, Integer> changes = new HashMap<>();
+            for (Map.Entry<String, Integer> entry : keys.entrySet()) {
+                int from = before.getOrDefault(entry.getKey(), 0);
+                KeysTransactionEvent event = new KeysTransactionEvent(caseType, entry.getKey(), from + entry.getValue(), from);
+                Bukkit.getPluginManager().callEvent(event);
+                if (!event.isCancelled()) changes.put(entry.getKey(), event.after() - from);
+            }
+            return getDatabase().addKeysBulk(caseType, changes);
+        });
     }
 
     /**
@@ -140,7 +195,65 @@ public class Case {
      * @param keys Number of keys
      */
     public static void removeKeys(String caseType, String player, int keys) {
-        getKeysAsync(caseType, player).thenAcceptAsync(before -> setKeys(caseType, player, before - keys));
+        logFailure(changeKeys(caseType, player, -keys, false));
+    }
+
+    /**
+     * Delete case keys for a specific player, only if he has enough keys (async)
+     * @param caseType Case type
+     * @param player Player name
+     * @param keys Number of keys
+     * @return CompletableFuture of result, true if keys were removed
+     * @since 2.2.6.7
+     */
+    public static CompletableFuture<Boolean> removeKeysIfEnough(String caseType, String player, int keys) {
+        return changeKeys(caseType, player, -keys, true);
+    }
+
+    /**
+     * Change keys with one database statement.
+     * Number of keys before transaction is read only if someone listens {@link KeysTransactionEvent}
+     * @param caseType Case type
+     * @param player Player name
+     * @param delta Number of keys to add, may be negative
+     * @param conditional If true, keys will not go below zero
+     * @return CompletableFuture of result, true if keys were changed
+     */
+    private static CompletableFuture<Boolean> changeKeys(String caseType, String player, int delta, boolean conditional) {
+        if (!hasKeysListeners()) return applyKeysDelta(caseType, player, delta, conditional);
+
+        return getDatabase().getKeysForChange(caseType, player).thenComposeAsync(before -> {
+            if (conditional && before + delta < 0) return CompletableFuture.completedFuture(false);
+
+            KeysTransactionEvent event = new KeysTransactionEvent(caseType, player, before + delta, before);
+            Bukkit.getPluginManager().callEvent(event);
+            if (event.isCancelled()) return CompletableFuture.completedFuture(false);
+
+            return applyKeysDelta(caseType, player, event.after() - before, conditional);
+        });
+    }
+
+    private static CompletableFuture<Boolean> applyKeysDelta(String caseType, String player, int delta, boolean conditional) {
+        InfoEntry entry = new InfoEntry(player, caseType);
+        if (conditional && delta < 0) {
+            return getDatabase().removeKeysIfEnough(caseType, player, -delta)
+                    .whenComplete((removed, throwable) -> keysCache.invalidate(entry));
+        }
+
+        getDatabase().addKeys(caseType, player, delta);
+        keysCache.invalidate(entry);
+        return CompletableFuture.completedFuture(true);
+    }
+
+    private static void logFailure(CompletableFuture<?> future) {
+        future.exceptionally(throwable -> {
+            instance.getLogger().warning(throwable.getMessage());
+            return null;
+        });
+    }
+
+    private static boolean hasKeysListeners() {
+        return KeysTransactionEvent.getHandlerList().getRegisteredListeners().length > 0;
     }
 
     /**
@@ -149,6 +262,7 @@ public class Case {
      */
     public static void removeAllKeys() {
         getDatabase().delAllKeys();
+        keysCache.clear();
     }
 
     /**
@@ -173,28 +287,33 @@ public class Case {
 
     /**
      * Get the keys to a certain player's case from cache <br/>
-     * Returns no-cached, if mysql disabled
+     * Never waits for database: returns 0, until number of keys is loaded first time <br/>
+     * Online players are read from their session without any allocation
      * @param caseType Case type
      * @param player Player name
      * @return Number of keys
      * @since 2.2.3.8
      */
     public static int getKeysCache(String caseType, String player) {
-        if(instance.databaseType == DatabaseType.SQLITE) return getKeys(caseType, player);
+        Integer keys = getKeysCacheIfLoaded(caseType, player);
+        return keys == null ? 0 : keys;
+    }
 
-        int keys;
-        InfoEntry entry = new InfoEntry(player, caseType);
-        Integer cachedKeys = keysCache.get(entry);
-        if(cachedKeys == null) {
-            // Get previous, if current is null
-            Integer previous = keysCache.getPrevious(entry);
-            keys = previous != null ? previous : getKeys(caseType, player);
+    /**
+     * Get the keys to a certain player's case from cache, like {@link #getKeysCache(String, String)} <br/>
+     * Returns last known value, while it is reloaded, and null, until number of keys is loaded first time
+     * @param caseType Case type
+     * @param player Player name
+     * @return Number of keys or null, if not loaded yet
+     * @since 2.2.6.7
+     */
+    @Nullable
+    public static Integer getKeysCacheIfLoaded(String caseType, String player) {
+        PlayerSession session = getDatabase().getSession(player);
+        if (session != null) return session.getKeys(caseType);
 
-            getKeysAsync(caseType, player).thenAcceptAsync(integer -> keysCache.put(entry, integer));
-        } else {
-            keys = cachedKeys;
-        }
-        return keys;
+        return keysCache.getOrRefresh(new InfoEntry(player, caseType),
+                entry -> getKeysAsync(entry.getCaseType(), entry.getPlayer()), null);
     }
 
     /**
@@ -219,27 +338,44 @@ public class Case {
 
     /**
      * Get count of opened cases by player from cache <br/>
-     * Returns no-cached, if mysql disabled
+     * Never waits for database: returns 0, until count is loaded first time <br/>
+     * Online players are read from their session without any allocation
      * @param caseType Case type
      * @param player Player, who opened
      * @return opened count
      * @since 2.2.3.8
      */
     public static int getOpenCountCache(String caseType, String player) {
-        if(instance.databaseType == DatabaseType.SQLITE) return getOpenCount(caseType, player);
+        Integer count = getOpenCountCacheIfLoaded(caseType, player);
+        return count == null ? 0 : count;
+    }
 
-        int openCount;
-        InfoEntry entry = new InfoEntry(player, caseType);
-        Integer cachedKeys = openCache.get(entry);
-        if(cachedKeys == null) {
-            getOpenCountAsync(caseType, player).thenAcceptAsync(integer -> openCache.put(entry, integer));
-            // Get previous, if current is null
-            Integer previous = keysCache.getPrevious(entry);
-            openCount = previous != null ? previous : getOpenCount(caseType, player);
-        } else {
-            openCount = cachedKeys;
-        }
-        return openCount;
+    /**
+     * Get count of opened cases by player from cache, like {@link #getOpenCountCache(String, String)} <br/>
+     * Returns last known value, while it is reloaded, and null, until count is loaded first time
+     * @param caseType Case type
+     * @param player Player, who opened
+     * @return opened count or null, if not loaded yet
+     * @since 2.2.6.7
+     */
+    @Nullable
+    public static Integer getOpenCountCacheIfLoaded(String caseType, String player) {
+        PlayerSession session = getDatabase().getSession(player);
+        if (session != null) return session.getCount(caseType);
+
+        return openCache.getOrRefresh(new InfoEntry(player, caseType),
+                entry -> getOpenCountAsync(entry.getCaseType(), entry.getPlayer()), null);
+    }
+
+    /**
+     * Get text shown in GUI and placeholders instead of number of keys or opened cases,
+     * until it is loaded first time
+     * @return {@code DonateCase.CachingPlaceholder} from Config.yml
+     * @since 2.2.6.7
+     */
+    @NotNull
+    public static String getCacheLoadingPlaceholder() {
+        return getConfig().getConfig().getString("DonateCase.CachingPlaceholder", "...");
     }
 
     /**
@@ -251,6 +387,7 @@ public class Case {
      */
     public static void setOpenCount(String caseType, String player, int openCount) {
         getDatabase().setCount(caseType, player, openCount);
+        openCache.invalidate(new InfoEntry(player, caseType));
     }
 
     /**
@@ -261,7 +398,8 @@ public class Case {
      * @since 2.2.4.4
      */
     public static void addOpenCount(String caseType, String player, int openCount) {
-        getOpenCountAsync(caseType, player).thenAcceptAsync(integer -> setOpenCount(caseType, player, integer + openCount));
+        getDatabase().addCount(caseType, player, openCount);
+        openCache.invalidate(new InfoEntry(player, caseType));
     }
 
     /**
@@ -271,6 +409,7 @@ public class Case {
     public static void deleteCaseByName(String name) {
         getConfig().getCases().set("DonateCase.Cases." + name, null);
         getConfig().saveCases();
+        getLocationIndex().remove(name);
     }
 
     /**
@@ -283,48 +422,16 @@ public class Case {
     }
 
     /**
-     * Get case information by location
-     * @param loc Case location
-     * @param infoType Information type ("type", "name" or "location")
-     * @return Case information
+     * Get index of created cases, rebuilt if Cases.yml was reloaded
+     * @return case location index
      */
-    private static <T> T getCaseInfoByLocation(Location loc, String infoType, Class<T> clazz) {
-        T object = null;
-        ConfigurationSection casesSection = getConfig().getCases().getConfigurationSection("DonateCase.Cases");
-        if (casesSection == null) return null;
-
-        for (String name : casesSection.getValues(false).keySet()) {
-            ConfigurationSection caseSection = casesSection.getConfigurationSection(name);
-            if (caseSection == null) continue;
-
-            String location = caseSection.getString("location");
-            if (location == null) continue;
-
-            String[] worldLocation = location.split(";");
-            World world = Bukkit.getWorld(worldLocation[0]);
-            try {
-                Location temp = new Location(world, Double.parseDouble(worldLocation[1]), Double.parseDouble(worldLocation[2]), Double.parseDouble(worldLocation[3]));
-
-                if (temp.equals(loc)) {
-                    switch (infoType) {
-                        case "type":
-                            object = clazz.cast(caseSection.getString("type"));
-                            break;
-                        case "name":
-                            object = clazz.cast(name);
-                            break;
-                        case "location": {
-                            Location result = temp.clone();
-                            result.setPitch(Float.parseFloat(worldLocation[4]));
-                            result.setYaw(Float.parseFloat(worldLocation[5]));
-                            object = clazz.cast(result);
-                            break;
-                        }
-                    }
-                }
-            } catch (Exception ignored) {}
+    private static synchronized CaseLocationIndex getLocationIndex() {
+        YamlConfiguration cases = getConfig().getCases();
+        if (cases != indexedCases) {
+            locationIndex.rebuild(cases.getConfigurationSection("DonateCase.Cases"));
+            indexedCases = cases;
         }
-        return object;
+        return locationIndex;
     }
 
     /**
@@ -333,7 +440,8 @@ public class Case {
      * @return Case type
      */
     public static String getCaseTypeByLocation(Location loc) {
-        return getCaseInfoByLocation(loc, "type", String.class);
+        CaseLocationIndex.Entry entry = getLocationIndex().get(loc);
+        return entry == null ? null : entry.getType();
     }
 
     /**
@@ -342,7 +450,8 @@ public class Case {
      * @return Case name
      */
     public static String getCaseCustomNameByLocation(Location loc) {
-        return getCaseInfoByLocation(loc, "name", String.class);
+        CaseLocationIndex.Entry entry = getLocationIndex().get(loc);
+        return entry == null ? null : entry.getName();
     }
 
     /**
@@ -351,7 +460,8 @@ public class Case {
      * @return case location in Cases.yml (with yaw and pitch)
      */
     public static Location getCaseLocationByBlockLocation(Location loc) {
-        return getCaseInfoByLocation(loc, "location", Location.class);
+        CaseLocationIndex.Entry entry = getLocationIndex().get(loc);
+        return entry == null ? null : entry.getLocation();
     }
 
     /**
@@ -441,14 +551,114 @@ public class Case {
      * @since 2.2.4.4
      */
     public static void animationPreEnd(CaseData caseData, OfflinePlayer player, Location location, CaseData.Item item) {
-        World world = location != null ? location.getWorld() : null;
-        if(world == null) world = Bukkit.getWorlds().get(0);
+        Map<String, Integer> levelGroups = getLevelGroups(caseData);
+        String playerGroup = getPlayerGroup(getWorldName(location), player);
+        String choice = giveItem(caseData, player, item, levelGroups, playerGroup);
 
-        String choice = "";
-        Map<String, Integer> levelGroups = getDefaultLevelGroup();
-        if(!caseData.getLevelGroups().isEmpty()) levelGroups = caseData.getLevelGroups();
+        saveOpenInfo(caseData, player, item, choice);
+    }
 
-        String playerGroup = getPlayerGroup(world.getName(), player);
+    /**
+     * Open many cases at once without animation.
+     * Keys are removed with one conditional update, all items are drawn in one pass,
+     * actions of every item are executed in the main thread,
+     * then history and open count are written as one batch.
+     * {@link com.jodexindustries.donatecase.api.events.AnimationStartEvent} and other animation events are not called
+     * @param caseData Case data
+     * @param player Player, who opens
+     * @param location Case block location, may be null. Used only for player group lookup
+     * @param amount Number of cases to open
+     * @return CompletableFuture of won items, empty if player does not have enough keys
+     * @since 2.2.6.7
+     */
+    public static CompletableFuture<List<CaseData.Item>> openCases(@NotNull CaseData caseData, @NotNull Player player,
+                                                                   @Nullable Location location, int amount) {
+        return openCases(caseData, player, location, amount, false);
+    }
+
+    /**
+     * Open many cases at once without animation, like {@link #openCases(CaseData, Player, Location, int)}.
+     * Either all keys are removed and all cases are opened, or nothing is opened.
+     * If the task can not be scheduled in the main thread (plugin is disabling), removed keys are returned
+     * @param caseData Case data
+     * @param player Player, who opens
+     * @param location Case block location, may be null. Used only for player group lookup
+     * @param amount Number of cases to open
+     * @param ignoreKeys If true, keys are not removed, for example if {@link com.jodexindustries.donatecase.api.events.PreOpenCaseEvent#isIgnoreKeys()}
+     *                   is set or keys were already reserved by caller
+     * @return CompletableFuture of won items, empty if player does not have enough keys
+     * @since 2.2.6.7
+     */
+    public static CompletableFuture<List<CaseData.Item>> openCases(@NotNull CaseData caseData, @NotNull Player player,
+                                                                   @Nullable Location location, int amount, boolean ignoreKeys) {
+        if (amount <= 0 || caseData.getItems().isEmpty()) return CompletableFuture.completedFuture(Collections.emptyList());
+
+        CompletableFuture<List<CaseData.Item>> result = new CompletableFuture<>();
+        CompletableFuture<Boolean> reserved = ignoreKeys ? CompletableFuture.completedFuture(true)
+                : removeKeysIfEnough(caseData.getCaseType(), player.getName(), amount);
+        reserved.whenComplete((removed, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+                return;
+            }
+
+            List<CaseData.Item> items;
+            if (removed) {
+                AliasSampler<CaseData.Item> sampler = caseData.getItemSampler();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                items = new ArrayList<>(amount);
+                for (int i = 0; i < amount; i++) {
+                    items.add(sampler.sample(random));
+                }
+            } else {
+                items = Collections.emptyList();
+            }
+
+            try {
+                // may be completed in database thread, callers run actions
+                Bukkit.getScheduler().runTask(instance, () -> {
+                    try {
+                        if (!items.isEmpty()) giveItems(caseData, player, location, items);
+                        result.complete(items);
+                    } catch (Throwable t) {
+                        result.completeExceptionally(t);
+                    }
+                });
+            } catch (RuntimeException e) {
+                // plugin is disabling, the task will never run
+                if (removed && !ignoreKeys) addKeys(caseData.getCaseType(), player.getName(), amount);
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private static void giveItems(CaseData caseData, OfflinePlayer player, @Nullable Location location, List<CaseData.Item> items) {
+        Map<String, Integer> levelGroups = getLevelGroups(caseData);
+        String playerGroup = getPlayerGroup(getWorldName(location), player);
+        CaseData stored = getCase(caseData.getCaseType());
+
+        long time = System.currentTimeMillis();
+        List<CaseData.HistoryData> history = new ArrayList<>(items.size());
+        for (CaseData.Item item : items) {
+            String choice = giveItem(caseData, player, item, levelGroups, playerGroup);
+
+            CaseData.HistoryData data = new CaseData.HistoryData(item.getItemName(), caseData.getCaseType(), player.getName(), time, item.getGroup(), choice);
+            history.add(data);
+            if (stored != null) stored.addHistoryData(data);
+        }
+
+        getDatabase().addHistoryData(history);
+        addOpenCount(caseData.getCaseType(), player.getName(), items.size());
+    }
+
+    /**
+     * Execute actions of won item
+     * @return chosen random action or empty string
+     */
+    private static String giveItem(CaseData caseData, OfflinePlayer player, CaseData.Item item,
+                                   Map<String, Integer> levelGroups, String playerGroup) {
+        String choice = "";
         if(isAlternative(levelGroups, playerGroup, item.getGroup())) {
             executeActions(player, caseData, item, null, true);
         } else {
@@ -459,8 +669,19 @@ public class Case {
                 executeActions(player, caseData, item, choice, false);
             }
         }
+        return choice;
+    }
 
-        saveOpenInfo(caseData, player, item, choice);
+    private static Map<String, Integer> getLevelGroups(CaseData caseData) {
+        Map<String, Integer> levelGroups = getDefaultLevelGroup();
+        if(!caseData.getLevelGroups().isEmpty()) levelGroups = caseData.getLevelGroups();
+        return levelGroups;
+    }
+
+    private static String getWorldName(@Nullable Location location) {
+        World world = location != null ? location.getWorld() : null;
+        if(world == null) world = Bukkit.getWorlds().get(0);
+        return world.getName();
     }
 
     /**
@@ -472,50 +693,23 @@ public class Case {
      * @param choice In fact, these are actions that were selected from the RandomActions section
      */
     private static void saveOpenInfo(CaseData caseData, OfflinePlayer player, CaseData.Item item, String choice) {
-        Bukkit.getScheduler().runTaskAsynchronously(instance, () -> {
-            CaseData.HistoryData data = new CaseData.HistoryData(item.getItemName(), caseData.getCaseType(), player.getName(), System.currentTimeMillis(), item.getGroup(), choice);
-            CaseData.HistoryData[] list;
-            if(instance.databaseType == DatabaseType.SQLITE) {
-                list = caseData.getHistoryData();
-            } else {
-                List<CaseData.HistoryData> temp = getDatabase().getHistoryDataByCaseType(caseData.getCaseType()).join();
-                if(!temp.isEmpty()) {
-                    list = temp.toArray(new CaseData.HistoryData[10]);
-                } else {
-                    list = new CaseData.HistoryData[10];
-                }
-            }
-            System.arraycopy(list, 0, list, 1, list.length - 1);
-            list[0] = data;
+        CaseData.HistoryData data = new CaseData.HistoryData(item.getItemName(), caseData.getCaseType(), player.getName(), System.currentTimeMillis(), item.getGroup(), choice);
+        getDatabase().addHistoryData(data);
 
-            for (int i = 0; i < list.length; i++) {
-                CaseData.HistoryData tempData = list[i];
-                if (tempData != null) {
-                    getDatabase().setHistoryData(caseData.getCaseType(), i, tempData);
-                }
-            }
-
-            // Set history data in memory
-            Objects.requireNonNull(getCase(caseData.getCaseType())).setHistoryData(list);
+        // Set history data in memory
+        CaseData stored = getCase(caseData.getCaseType());
+        if (stored != null) stored.addHistoryData(data);
 
-            addOpenCount(caseData.getCaseType(), player.getName(), 1);
-        });
+        addOpenCount(caseData.getCaseType(), player.getName(), 1);
     }
 
-
     /**
      * Get random choice from item random action list
      * @param item Case item
      * @return random action name
      */
     public static String getRandomActionChoice(CaseData.Item item) {
-        ProbabilityCollection<String> collection = new ProbabilityCollection<>();
-        for (String name : item.getRandomActions().keySet()) {
-            CaseData.Item.RandomAction randomAction = item.getRandomAction(name);
-            if(randomAction == null) continue;
-            collection.add(name, randomAction.getChance());
-        }
-        return collection.get();
+        return item.getRandomActionSampler().sample();
     }
 
     /**
@@ -527,18 +721,17 @@ public class Case {
      * @param alternative If true, the item's alternative actions will be selected. (Same as {@link CaseData.Item#getAlternativeActions()})
      */
    public static void executeActions(OfflinePlayer player, CaseData caseData, CaseData.Item item, String choice, boolean alternative) {
-       final String[] replacementRegex = {
-               "%player%:" + player.getName(),
-               "%casename%:" + caseData.getCaseType(),
-               "%casedisplayname%:" + caseData.getCaseDisplayName(),
-               "%casetitle%:" + caseData.getCaseTitle(),
-               "%group%:" + item.getGroup(),
-               "%groupdisplayname%:" + item.getMaterial().getDisplayName()
+       // values of CompiledAction.CASE_PLACEHOLDERS
+       final String[] values = {
+               player.getName(),
+               caseData.getCaseType(),
+               caseData.getCaseDisplayName(),
+               caseData.getCaseTitle(),
+               item.getGroup(),
+               item.getMaterial().getDisplayName()
        };
 
-       List<String> actions = Tools.rt(getActionsBasedOnChoice(item, choice, alternative), replacementRegex);
-
-       executeActions(player, actions);
+       executeCompiledActions(player, getCompiledActionsBasedOnChoice(item, choice, alternative), values);
    }
 
     /**
@@ -558,6 +751,19 @@ public class Case {
         return alternative ? item.getAlternativeActions() : item.getActions();
     }
 
+    /**
+     * Get parsed actions from case item, same as {@link #getActionsBasedOnChoice(CaseData.Item, String, boolean)}
+     */
+    private static List<CompiledAction> getCompiledActionsBasedOnChoice(CaseData.Item item, String choice, boolean alternative) {
+        if (choice != null) {
+            CaseData.Item.RandomAction randomAction = item.getRandomAction(choice);
+            if (randomAction != null) {
+                return randomAction.getCompiledActions();
+            }
+        }
+        return alternative ? item.getCompiledAlternativeActions() : item.getCompiledActions();
+    }
+
     /**
      * Execute actions
      * @param player Player, who opened case (maybe another reason)
@@ -565,13 +771,19 @@ public class Case {
      * @since 2.2.4.3
      */
     public static void executeActions(OfflinePlayer player, List<String> actions) {
-        for (String action : actions) {
-
-            action = Tools.rc(Case.getInstance().papi.setPlaceholders(player, action));
-            int cooldown = Tools.extractCooldown(action);
-            action = action.replaceFirst("\\[cooldown:(.*?)]", "");
+        executeCompiledActions(player, CompiledAction.compile(actions), null);
+    }
 
-            executeAction(player, action, cooldown);
+    /**
+     * Execute parsed actions
+     * @param player Player, who opened case (maybe another reason)
+     * @param actions List of compiled actions, like {@link CaseData.Item#getCompiledActions()}
+     * @param values Values of {@link CompiledAction#CASE_PLACEHOLDERS} or null
+     * @since 2.2.6.7
+     */
+    public static void executeCompiledActions(OfflinePlayer player, List<CompiledAction> actions, @Nullable String[] values) {
+        for (CompiledAction action : actions) {
+            action.execute(player, values);
         }
     }
 
@@ -659,8 +871,18 @@ public class Case {
      * @return list of HistoryData (sorted by time)
      */
     public static CompletableFuture<List<CaseData.HistoryData>> getAsyncSortedHistoryData() {
-        return CompletableFuture.supplyAsync(() -> instance.databaseType == DatabaseType.SQLITE ?
-                caseData.values().stream()
+        if (instance.databaseType != DatabaseType.MYSQL) return CompletableFuture.completedFuture(getMemorySortedHistoryData());
+
+        return getDatabase().getHistoryData().thenApply(list -> list.stream().filter(Objects::nonNull)
+                .sorted(Comparator.comparingLong(CaseData.HistoryData::getTime).reversed())
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * History of all cases kept in memory, it is complete, if mysql disabled
+     */
+    private static List<CaseData.HistoryData> getMemorySortedHistoryData() {
+        return caseData.values().stream()
                 .filter(Objects::nonNull)
                 .flatMap(data -> {
                     CaseData.HistoryData[] temp = data.getHistoryData();
@@ -668,31 +890,43 @@ public class Case {
                 })
                 .filter(Objects::nonNull)
                 .sorted(Comparator.comparingLong(CaseData.HistoryData::getTime).reversed())
-                .collect(Collectors.toList()) : getDatabase().getHistoryData().join().stream().filter(Objects::nonNull)
-                .sorted(Comparator.comparingLong(CaseData.HistoryData::getTime).reversed())
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList());
     }
 
     /**
-     * Returns no-cached, if mysql disabled
+     * Get sorted history data from all cases from cache <br/>
+     * Returns no-cached, if mysql disabled <br/>
+     * Never waits for database: returns empty list, until history is loaded first time
      * @return list of history data
      */
     public static List<CaseData.HistoryData> getSortedHistoryDataCache() {
-        if (instance.databaseType == DatabaseType.SQLITE) {
-            return getAsyncSortedHistoryData().join();
-        }
-
-        List<CaseData.HistoryData> cachedList = historyCache.get(1);
+        List<CaseData.HistoryData> cachedList = getSortedHistoryDataCacheIfLoaded();
+        return cachedList != null ? cachedList : Collections.emptyList();
+    }
 
-        if (cachedList != null) {
-            return cachedList;
-        }
+    /**
+     * Get sorted history data from all cases from cache, like {@link #getSortedHistoryDataCache()} <br/>
+     * Returns last known value, while it is reloaded, and null, until history is loaded first time
+     * @return list of history data or null, if not loaded yet
+     * @since 2.2.6.7
+     */
+    @Nullable
+    public static List<CaseData.HistoryData> getSortedHistoryDataCacheIfLoaded() {
+        if (instance.databaseType != DatabaseType.MYSQL) return getMemorySortedHistoryData();
 
-        List<CaseData.HistoryData> previousList = historyCache.getPrevious(1);
+        return historyCache.getOrRefresh(1, key -> getAsyncSortedHistoryData(), null);
+    }
 
-        getAsyncSortedHistoryData().thenAcceptAsync(historyData -> historyCache.put(1, historyData));
+    /**
+     * Get sorted history data from all cases from cache, or wait for its first load
+     * @return CompletableFuture of history data, completed at once, if it is already loaded
+     * @since 2.2.6.7
+     */
+    public static CompletableFuture<List<CaseData.HistoryData>> getSortedHistoryDataCacheAsync() {
+        List<CaseData.HistoryData> cachedList = getSortedHistoryDataCacheIfLoaded();
+        if (cachedList != null) return CompletableFuture.completedFuture(cachedList);
 
-        return (previousList != null) ? previousList : getAsyncSortedHistoryData().join();
+        return historyCache.refresh(1, key -> getAsyncSortedHistoryData());
     }
 
 
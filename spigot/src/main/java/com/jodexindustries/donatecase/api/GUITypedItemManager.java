@@ -2,11 +2,11 @@ package com.jodexindustries.donatecase.api;
 
 import com.jodexindustries.donatecase.api.addon.Addon;
 import com.jodexindustries.donatecase.api.data.gui.GUITypedItem;
+import com.jodexindustries.donatecase.tools.PrefixRegistry;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -15,10 +15,11 @@ import java.util.Map;
  * @since 2.2.4.9
  */
 public class GUITypedItemManager {
+    private final static PrefixRegistry<GUITypedItem> registry = new PrefixRegistry<>();
     /**
      * Map of all registered items
      */
-    public final static Map<String, GUITypedItem> registeredItems = new HashMap<>();
+    public final static Map<String, GUITypedItem> registeredItems = registry.getMap();
     private final Addon addon;
 
     /**
@@ -54,8 +55,8 @@ public class GUITypedItemManager {
      */
     public boolean registerItem(GUITypedItem item) {
         String id = item.getId().toLowerCase();
-        if (registeredItems.get(id) == null) {
-            registeredItems.put(id, item);
+        if (registry.get(id) == null) {
+            registry.register(id, item);
             return true;
         } else {
             addon.getLogger().warning("Typed item " + id + " already registered!");
@@ -71,8 +72,8 @@ public class GUITypedItemManager {
      * @since 2.2.4.9
      */
     public void unregisterItem(String id) {
-        if (registeredItems.get(id) != null) {
-            registeredItems.remove(id);
+        if (registry.get(id) != null) {
+            registry.unregister(id);
         } else {
             addon.getLogger().warning("Typed item " + id + " not registered!");
         }
@@ -97,18 +98,19 @@ public class GUITypedItemManager {
      */
     @Nullable
     public static GUITypedItem getRegisteredItem(@NotNull String id) {
-        return registeredItems.get(id.toLowerCase());
+        return registry.get(id.toLowerCase());
     }
 
     /**
      * Get registered item by string start
+     * If several names match, the longest one is returned
      *
      * @param string String to be parsed
      * @return GUITypedItem id
      * @since 2.2.4.9
      */
     public static @Nullable String getByStart(@NotNull final String string) {
-        return registeredItems.keySet().stream().filter(string.toLowerCase()::startsWith).findFirst().orElse(null);
+        return registry.longestPrefixOf(string.toLowerCase());
     }
 
     /**
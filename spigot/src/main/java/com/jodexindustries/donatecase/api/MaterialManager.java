@@ -3,11 +3,11 @@ package com.jodexindustries.donatecase.api;
 import com.jodexindustries.donatecase.api.addon.Addon;
 import com.jodexindustries.donatecase.api.data.material.CaseMaterial;
 import com.jodexindustries.donatecase.api.data.material.MaterialHandler;
+import com.jodexindustries.donatecase.tools.PrefixRegistry;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -16,10 +16,11 @@ import java.util.Map;
  * @since 2.2.4.8
  */
 public class MaterialManager {
+    private static final PrefixRegistry<CaseMaterial> registry = new PrefixRegistry<>();
     /**
      * Map of all registered materials
      */
-    public static final Map<String, CaseMaterial> registeredMaterials = new HashMap<>();
+    public static final Map<String, CaseMaterial> registeredMaterials = registry.getMap();
     private final Addon addon;
 
     /**
@@ -43,7 +44,7 @@ public class MaterialManager {
     public void registerMaterial(String id, MaterialHandler materialHandler, String description) {
         if (!isRegistered(id)) {
             CaseMaterial caseMaterial = new CaseMaterial(materialHandler, addon, id, description);
-            registeredMaterials.put(id, caseMaterial);
+            registry.register(id, caseMaterial);
         } else {
             addon.getLogger().warning("CaseMaterial with id " + id + " already registered");
         }
@@ -57,7 +58,7 @@ public class MaterialManager {
      */
     public void unregisterMaterial(String id) {
         if (isRegistered(id)) {
-            registeredMaterials.remove(id);
+            registry.unregister(id);
         } else {
             addon.getLogger().warning("CaseMaterial with id " + id + " already unregistered!");
         }
@@ -81,7 +82,7 @@ public class MaterialManager {
      * @since 2.2.4.8
      */
     public static boolean isRegistered(String id) {
-        return registeredMaterials.containsKey(id);
+        return registry.isRegistered(id);
     }
 
     /**
@@ -93,17 +94,18 @@ public class MaterialManager {
      */
     @Nullable
     public static CaseMaterial getRegisteredMaterial(@NotNull String id) {
-        return registeredMaterials.get(id);
+        return registry.get(id);
     }
 
     /**
      * Get registered materials by string start
+     * If several names match, the longest one is returned
      *
      * @param string String to be parsed
      * @return Case material id
      * @since 2.2.4.8
      */
     public static @Nullable String getByStart(@NotNull final String string) {
-        return registeredMaterials.keySet().stream().filter(string::startsWith).findFirst().orElse(null);
+        return registry.longestPrefixOf(string);
     }
 }
\ No newline at end of file
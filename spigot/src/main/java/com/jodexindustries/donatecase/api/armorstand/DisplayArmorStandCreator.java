@@ -0,0 +1,403 @@
+package com.jodexindustries.donatecase.api.armorstand;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.protocol.entity.type.EntityTypes;
+import com.github.retrooper.packetevents.util.Quaternion4f;
+import com.github.retrooper.packetevents.util.Vector3f;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.jodexindustries.donatecase.api.AnimationTicker;
+import com.jodexindustries.donatecase.api.Case;
+import io.github.retrooper.packetevents.adventure.serializer.legacy.LegacyComponentSerializer;
+import io.github.retrooper.packetevents.util.SpigotReflectionUtil;
+import me.tofaa.entitylib.meta.display.AbstractDisplayMeta;
+import me.tofaa.entitylib.meta.display.ItemDisplayMeta;
+import me.tofaa.entitylib.meta.display.TextDisplayMeta;
+import me.tofaa.entitylib.wrapper.WrapperEntity;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.ArmorStand;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.metadata.MetadataValue;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.util.EulerAngle;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Armor stand replacement, built on packet ItemDisplay and TextDisplay entities (1.19.4+).
+ * <p>
+ * Entities stay where they were spawned, {@link #teleport(Location)} only changes their transformation.
+ * New transformation is sent not more often than every {@code DonateCase.DisplayEntities.Interpolation} ticks,
+ * client interpolates between them, so moving item costs one packet per several ticks instead of teleport every tick.
+ * Item is shown like on armor stand head or hand, name is shown with text display above it.
+ * Body, legs and feet items are shown like head items
+ * @since 2.2.6.7
+ */
+public class DisplayArmorStandCreator implements ArmorStandCreator {
+    private static final Quaternion4f NO_ROTATION = new Quaternion4f(0, 0, 0, 1);
+    private static final Set<EquipmentSlot> warnedSlots = EnumSet.noneOf(EquipmentSlot.class);
+
+    private final Location origin;
+    private Location location;
+    private final WrapperEntity item;
+    private final ItemDisplayMeta itemMeta;
+    private final WrapperEntity text;
+    private final TextDisplayMeta textMeta;
+    private final EntityMetadataStore metadataStore;
+    private final int interval;
+
+    private EquipmentSlot slot = EquipmentSlot.HEAD;
+    private Quaternion4f headRotation = NO_ROTATION;
+    private Quaternion4f rightArmRotation = NO_ROTATION;
+    private Quaternion4f leftArmRotation = NO_ROTATION;
+    private String customName;
+    private boolean customNameVisible;
+    private boolean small;
+    private long lastSent = -1;
+    private boolean dirty;
+    private boolean queued;
+    private AnimationTicker.Task retry;
+    // keeps viewer and bundle callbacks out of public API
+    private final PacketEntity packetEntity = new PacketEntity() {
+        @Override
+        public void updateViewer(UUID uuid, Location at) {
+            DisplayArmorStandCreator.this.updateViewer(uuid, at);
+        }
+
+        @Override
+        public void removeViewer(UUID uuid) {
+            DisplayArmorStandCreator.this.removeViewer(uuid);
+        }
+
+        @Override
+        public void collect(Map<UUID, List<PacketWrapper<?>>> packets) {
+            DisplayArmorStandCreator.this.collect(packets);
+        }
+    };
+
+    public DisplayArmorStandCreator(Location location) {
+        this.origin = location.clone();
+        this.location = location;
+        this.metadataStore = new EntityMetadataStore();
+        this.interval = Math.max(1, Case.getConfig().getConfig().getInt("DonateCase.DisplayEntities.Interpolation", 3));
+
+        item = new WrapperEntity(EntityTypes.ITEM_DISPLAY);
+        itemMeta = (ItemDisplayMeta) item.getEntityMeta();
+        itemMeta.setDisplayType(ItemDisplayMeta.DisplayType.HEAD);
+
+        text = new WrapperEntity(EntityTypes.TEXT_DISPLAY);
+        textMeta = (TextDisplayMeta) text.getEntityMeta();
+        textMeta.setBillboardConstraints(AbstractDisplayMeta.BillboardConstraints.CENTER);
+
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            if (PacketViewers.isInRange(origin, p.getLocation())) {
+                item.addViewer(p.getUniqueId());
+                text.addViewer(p.getUniqueId());
+            }
+        }
+        PacketViewers.add(packetEntity);
+    }
+
+    /**
+     * Check whether display entities are enabled in config and supported by server
+     *
+     * @return true, if display entities should be used instead of packet armor stands
+     */
+    public static boolean isEnabled() {
+        return Case.getConfig().getConfig().getBoolean("DonateCase.DisplayEntities.Enabled", false)
+                && PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_19_4);
+    }
+
+    @Override
+    public void setVisible(boolean isVisible) {
+        // display entities have no body
+    }
+
+    @Override
+    public void setCustomName(String displayName) {
+        if (displayName == null) return;
+        customName = displayName;
+        updateText();
+    }
+
+    @Override
+    public void setCustomNameVisible(boolean flag) {
+        customNameVisible = flag;
+        updateText();
+    }
+
+    @Override
+    public void teleport(Location location) {
+        this.location = location;
+        markDirty();
+    }
+
+    @Override
+    public void setHelmet(ItemStack item) {
+        setEquipment(EquipmentSlot.HEAD, item);
+    }
+
+    @Override
+    public void setEquipment(EquipmentSlot equipmentSlot, ItemStack item) {
+        // display shows one item, like in hand or on head of armor stand
+        slot = equipmentSlot;
+        switch (equipmentSlot) {
+            case HAND:
+                itemMeta.setDisplayType(ItemDisplayMeta.DisplayType.THIRD_PERSON_RIGHT_HAND);
+                break;
+            case OFF_HAND:
+                itemMeta.setDisplayType(ItemDisplayMeta.DisplayType.THIRD_PERSON_LEFT_HAND);
+                break;
+            case HEAD:
+                itemMeta.setDisplayType(ItemDisplayMeta.DisplayType.HEAD);
+                break;
+            default:
+                if (warnedSlots.add(equipmentSlot)) {
+                    Case.getInstance().getLogger().warning("Display entities can not show " + equipmentSlot
+                            + " items, they are shown like HEAD items");
+                }
+                itemMeta.setDisplayType(ItemDisplayMeta.DisplayType.HEAD);
+        }
+        itemMeta.setItem(SpigotReflectionUtil.decodeBukkitItemStack(item));
+    }
+
+    @Override
+    public void setAngle(ArmorStandEulerAngle angle) {
+        setHeadPose(angle.getHead());
+        rightArmRotation = fromEuler(angle.getRightArm());
+        leftArmRotation = fromEuler(angle.getLeftArm());
+    }
+
+    @Override
+    public void setRotation(float yaw, float pitch) {
+        location.setYaw(yaw);
+        location.setPitch(pitch);
+        markDirty();
+    }
+
+    @Override
+    public void setHeadPose(EulerAngle eulerAngle) {
+        headRotation = fromEuler(eulerAngle);
+    }
+
+    @Override
+    public void setGravity(boolean hasGravity) {
+    }
+
+    @Override
+    public void setSmall(boolean small) {
+        this.small = small;
+        float scale = small ? 0.5f : 1;
+        itemMeta.setScale(new Vector3f(scale, scale, scale));
+    }
+
+    @Override
+    public void setMarker(boolean marker) {
+    }
+
+    @Override
+    public void setGlowing(boolean glowing) {
+        itemMeta.setGlowing(glowing);
+    }
+
+    @Override
+    public void setCollidable(boolean collidable) {
+    }
+
+    @Override
+    public Location getLocation() {
+        return location;
+    }
+
+    @Override
+    public @NotNull UUID getUniqueId() {
+        return item.getUuid();
+    }
+
+    @Override
+    public boolean isPacket() {
+        return true;
+    }
+
+    @Override
+    public ArmorStand getArmorStand() {
+        return null;
+    }
+
+    @Override
+    public void spawn() {
+        applyTransformation(0);
+        item.spawn(PacketArmorStandCreator.fromBukkitLocation(origin));
+        text.spawn(PacketArmorStandCreator.fromBukkitLocation(origin));
+        lastSent = AnimationTicker.getCurrentTick();
+    }
+
+    @Override
+    public void updateMeta() {
+        markDirty();
+    }
+
+    @Override
+    public void remove() {
+        PacketViewers.remove(packetEntity);
+        dirty = false;
+        if (retry != null) {
+            retry.cancel();
+            retry = null;
+        }
+        item.remove();
+        text.remove();
+    }
+
+    @Override
+    public void setMetadata(@NotNull String metadata, @NotNull MetadataValue value) {
+        metadataStore.setMetadata(item.getUuid(), metadata, value);
+    }
+
+    @NotNull
+    @Override
+    public List<MetadataValue> getMetadata(@NotNull String metadataKey) {
+        return metadataStore.getMetadata(item.getUuid(), metadataKey);
+    }
+
+    @Override
+    public boolean hasMetadata(@NotNull String metadataKey) {
+        return metadataStore.hasMetadata(item.getUuid(), metadataKey);
+    }
+
+    @Override
+    public void removeMetadata(@NotNull String metadataKey, @NotNull Plugin owningPlugin) {
+        metadataStore.removeMetadata(item.getUuid(), metadataKey, owningPlugin);
+    }
+
+    private void updateViewer(UUID uuid, Location at) {
+        boolean viewer = item.getViewers().contains(uuid);
+        if (PacketViewers.isInRange(origin, at)) {
+            if (!viewer) {
+                item.addViewer(uuid);
+                text.addViewer(uuid);
+            }
+        } else if (viewer) {
+            removeViewer(uuid);
+        }
+    }
+
+    private void removeViewer(UUID uuid) {
+        if (item.getViewers().contains(uuid)) item.removeViewer(uuid);
+        if (text.getViewers().contains(uuid)) text.removeViewer(uuid);
+    }
+
+    private void collect(Map<UUID, List<PacketWrapper<?>>> packets) {
+        queued = false;
+        if (!dirty || !item.isSpawned()) return;
+
+        long now = AnimationTicker.getCurrentTick();
+        if (now - lastSent < interval) {
+            // too early, client is still interpolating to the previous target.
+            // Sent by ticker later, even if animation does not move this entity anymore
+            if (retry == null) {
+                retry = AnimationTicker.schedule(task -> {
+                    task.cancel();
+                    retry = null;
+                    if (dirty) queue();
+                }, interval - (now - lastSent), 1);
+            }
+            return;
+        }
+
+        applyTransformation(interval);
+        lastSent = now;
+        dirty = false;
+
+        List<PacketWrapper<?>> updates = new ArrayList<>(2);
+        updates.add(itemMeta.createPacket());
+        updates.add(textMeta.createPacket());
+        for (UUID viewer : item.getViewers()) {
+            packets.computeIfAbsent(viewer, uuid -> new ArrayList<>()).addAll(updates);
+        }
+    }
+
+    private void markDirty() {
+        dirty = true;
+        if (PacketBundle.isOpen()) {
+            queue();
+            return;
+        }
+
+        // outside of animation ticker there is nothing to interpolate with, send at once
+        if (!item.isSpawned()) return;
+        applyTransformation(0);
+        lastSent = AnimationTicker.getCurrentTick();
+        dirty = false;
+        item.sendPacketToViewers(itemMeta.createPacket());
+        text.sendPacketToViewers(textMeta.createPacket());
+    }
+
+    private void queue() {
+        if (queued) return;
+        queued = true;
+        PacketBundle.add(packetEntity);
+    }
+
+    private void updateText() {
+        textMeta.setText(LegacyComponentSerializer.legacyAmpersand()
+                .deserialize(customNameVisible && customName != null ? customName : ""));
+    }
+
+    /**
+     * Move item and name from spawn point to current location
+     *
+     * @param duration Interpolation duration in ticks, 0 to move at once
+     */
+    private void applyTransformation(int duration) {
+        float x = (float) (location.getX() - origin.getX());
+        float y = (float) (location.getY() - origin.getY());
+        float z = (float) (location.getZ() - origin.getZ());
+        // item and name heights of armor stand
+        float head = slot == EquipmentSlot.HAND || slot == EquipmentSlot.OFF_HAND
+                ? (small ? 0.35f : 0.7f)
+                : (small ? 0.7f : 1.45f);
+        float name = small ? 1.0f : 2.1f;
+
+        Quaternion4f yaw = fromEuler(0, Math.toRadians(-location.getYaw()), 0);
+        Quaternion4f pose = slot == EquipmentSlot.HAND ? rightArmRotation
+                : slot == EquipmentSlot.OFF_HAND ? leftArmRotation : headRotation;
+
+        itemMeta.setInterpolationDelay(0);
+        itemMeta.setTransformationInterpolationDuration(duration);
+        itemMeta.setTranslation(new Vector3f(x, y + head, z));
+        itemMeta.setLeftRotation(yaw);
+        itemMeta.setRightRotation(pose);
+
+        textMeta.setInterpolationDelay(0);
+        textMeta.setTransformationInterpolationDuration(duration);
+        textMeta.setTranslation(new Vector3f(x, y + name, z));
+    }
+
+    private static Quaternion4f fromEuler(EulerAngle angle) {
+        return fromEuler(angle.getX(), angle.getY(), angle.getZ());
+    }
+
+    /**
+     * Rotation of armor stand part: X first, then Y, then Z
+     */
+    private static Quaternion4f fromEuler(double x, double y, double z) {
+        double cx = Math.cos(x / 2), sx = Math.sin(x / 2);
+        double cy = Math.cos(y / 2), sy = Math.sin(y / 2);
+        double cz = Math.cos(z / 2), sz = Math.sin(z / 2);
+        return new Quaternion4f(
+                (float) (sx * cy * cz - cx * sy * sz),
+                (float) (cx * sy * cz + sx * cy * sz),
+                (float) (cx * cy * sz - sx * sy * cz),
+                (float) (cx * cy * cz + sx * sy * sz));
+    }
+}
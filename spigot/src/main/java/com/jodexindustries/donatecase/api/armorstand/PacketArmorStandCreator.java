@@ -1,6 +1,13 @@
 package com.jodexindustries.donatecase.api.armorstand;
 
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.manager.player.PlayerManager;
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
 import com.github.retrooper.packetevents.protocol.entity.type.EntityTypes;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerBundle;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityTeleport;
 import io.github.retrooper.packetevents.adventure.serializer.legacy.LegacyComponentSerializer;
 import io.github.retrooper.packetevents.util.SpigotReflectionUtil;
 import me.tofaa.entitylib.meta.other.ArmorStandMeta;
@@ -16,26 +23,52 @@ import org.bukkit.plugin.Plugin;
 import org.bukkit.util.EulerAngle;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class PacketArmorStandCreator implements ArmorStandCreator {
     private Location location;
+    private final Location origin;
     private final WrapperLivingEntity entity;
     private final ArmorStandMeta meta;
     private final EntityMetadataStore metadataStore;
+    // updates collected by PacketBundle
+    private Location pendingTeleport;
+    private boolean pendingMeta;
+    private boolean queued;
+    // keeps viewer and bundle callbacks out of public API
+    private final PacketEntity packetEntity = new PacketEntity() {
+        @Override
+        public void updateViewer(UUID uuid, Location at) {
+            PacketArmorStandCreator.this.updateViewer(uuid, at);
+        }
+
+        @Override
+        public void removeViewer(UUID uuid) {
+            PacketArmorStandCreator.this.removeViewer(uuid);
+        }
+
+        @Override
+        public void collect(Map<UUID, List<PacketWrapper<?>>> packets) {
+            PacketArmorStandCreator.this.collect(packets);
+        }
+    };
 
     public PacketArmorStandCreator(Location location) {
         metadataStore = new EntityMetadataStore();
         entity = new WrapperLivingEntity(EntityTypes.ARMOR_STAND);
         entity.getEquipment().setNotifyChanges(true);
+        this.origin = location.clone();
         for (Player p : Bukkit.getOnlinePlayers()) {
-            entity.addViewer(p.getUniqueId());
+            if (PacketViewers.isInRange(origin, p.getLocation())) entity.addViewer(p.getUniqueId());
         }
         meta = (ArmorStandMeta) entity.getEntityMeta();
 
         this.location = location;
-
+        PacketViewers.add(packetEntity);
     }
 
     @Override
@@ -193,12 +226,20 @@ public class PacketArmorStandCreator implements ArmorStandCreator {
 
     @Override
     public void teleport(Location location) {
-        entity.teleport(fromBukkitLocation(location));
         this.location = location;
+        if (PacketBundle.isOpen()) {
+            pendingTeleport = location;
+            queue();
+            return;
+        }
+        entity.teleport(fromBukkitLocation(location));
     }
 
     @Override
     public void remove() {
+        PacketViewers.remove(packetEntity);
+        pendingTeleport = null;
+        pendingMeta = false;
         entity.remove();
     }
 
@@ -209,9 +250,91 @@ public class PacketArmorStandCreator implements ArmorStandCreator {
 
     @Override
     public void updateMeta() {
+        if (PacketBundle.isOpen()) {
+            pendingMeta = true;
+            queue();
+            return;
+        }
         entity.sendPacketToViewers(meta.createPacket());
     }
 
+    private void updateViewer(UUID uuid, Location at) {
+        boolean viewer = entity.getViewers().contains(uuid);
+        if (PacketViewers.isInRange(origin, at)) {
+            if (!viewer) addViewer(uuid);
+        } else if (viewer) {
+            entity.removeViewer(uuid);
+        }
+    }
+
+    private void removeViewer(UUID uuid) {
+        if (entity.getViewers().contains(uuid)) entity.removeViewer(uuid);
+    }
+
+    /**
+     * Spawn for new viewer at the current location.
+     * Bundled teleports bypass wrapper entity, so it spawns new viewers where it was spawned itself
+     */
+    private void addViewer(UUID uuid) {
+        entity.addViewer(uuid);
+        Player player = Bukkit.getPlayer(uuid);
+        if (player == null || !entity.isSpawned()) return;
+        PacketEvents.getAPI().getPlayerManager().sendPacket(player,
+                new WrapperPlayServerEntityTeleport(entity.getEntityId(), fromBukkitLocation(location), false));
+    }
+
+    private void queue() {
+        if (queued) return;
+        queued = true;
+        PacketBundle.add(packetEntity);
+    }
+
+    private void collect(Map<UUID, List<PacketWrapper<?>>> packets) {
+        queued = false;
+        if (!entity.isSpawned()) return;
+
+        List<PacketWrapper<?>> updates = new ArrayList<>(2);
+        if (pendingTeleport != null) {
+            updates.add(new WrapperPlayServerEntityTeleport(entity.getEntityId(), fromBukkitLocation(pendingTeleport), false));
+            pendingTeleport = null;
+        }
+        if (pendingMeta) {
+            updates.add(meta.createPacket());
+            pendingMeta = false;
+        }
+        if (updates.isEmpty()) return;
+
+        for (UUID viewer : entity.getViewers()) {
+            packets.computeIfAbsent(viewer, uuid -> new ArrayList<>()).addAll(updates);
+        }
+    }
+
+    /**
+     * Send collected updates: all packets of one viewer go in one bundle, if server and client support it
+     */
+    static void flush(List<PacketEntity> entities) {
+        Map<UUID, List<PacketWrapper<?>>> packets = new HashMap<>();
+        for (PacketEntity entity : entities) {
+            entity.collect(packets);
+        }
+        if (packets.isEmpty()) return;
+
+        PlayerManager playerManager = PacketEvents.getAPI().getPlayerManager();
+        boolean serverBundles = PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_19_4);
+        for (Map.Entry<UUID, List<PacketWrapper<?>>> entry : packets.entrySet()) {
+            Player player = Bukkit.getPlayer(entry.getKey());
+            if (player == null) continue;
+
+            boolean bundle = serverBundles && entry.getValue().size() > 1
+                    && playerManager.getClientVersion(player).isNewerThanOrEquals(ClientVersion.V_1_19_4);
+            if (bundle) playerManager.sendPacket(player, new WrapperPlayServerBundle());
+            for (PacketWrapper<?> packet : entry.getValue()) {
+                playerManager.sendPacket(player, packet);
+            }
+            if (bundle) playerManager.sendPacket(player, new WrapperPlayServerBundle());
+        }
+    }
+
     public static com.github.retrooper.packetevents.protocol.world.Location fromBukkitLocation(Location location) {
         return new com.github.retrooper.packetevents.protocol.world.Location(
                 location.getX(), location.getY(), location.getZ(), location.getYaw(), location.getPitch());
@@ -0,0 +1,47 @@
+package com.jodexindustries.donatecase.api.armorstand;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects position and metadata updates of packet armor stands, made in the main thread between
+ * {@link #begin()} and {@link #end()}, and sends them together.
+ * On 1.19.4+ servers and clients updates for every viewer are sent as one bundle, so they are applied in the same client frame.
+ * Used by {@link com.jodexindustries.donatecase.api.AnimationTicker} for every animation tick.
+ * Does nothing, if packets are not used
+ * @since 2.2.6.7
+ */
+public final class PacketBundle {
+    private static final List<PacketEntity> pending = new ArrayList<>();
+    private static int depth;
+
+    private PacketBundle() {}
+
+    /**
+     * Start collecting updates, calls may be nested
+     */
+    public static void begin() {
+        depth++;
+    }
+
+    /**
+     * Stop collecting updates, when the outermost call ends, collected updates are sent
+     */
+    public static void end() {
+        if (depth > 0) depth--;
+        if (depth > 0 || pending.isEmpty()) return;
+
+        // entities may queue again while flushing, they are sent with the next bundle
+        List<PacketEntity> entities = new ArrayList<>(pending);
+        pending.clear();
+        PacketArmorStandCreator.flush(entities);
+    }
+
+    static boolean isOpen() {
+        return depth > 0;
+    }
+
+    static void add(PacketEntity entity) {
+        pending.add(entity);
+    }
+}
@@ -0,0 +1,37 @@
+package com.jodexindustries.donatecase.api.armorstand;
+
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import org.bukkit.Location;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Packet entity, which is shown to players near it and sends updates through {@link PacketBundle}
+ * @since 2.2.6.7
+ */
+interface PacketEntity {
+
+    /**
+     * Add or remove viewer, depending on distance from the place where entity was created
+     *
+     * @param uuid Player uuid
+     * @param at   Player location
+     */
+    void updateViewer(UUID uuid, Location at);
+
+    /**
+     * Remove viewer, if they are viewing
+     *
+     * @param uuid Player uuid
+     */
+    void removeViewer(UUID uuid);
+
+    /**
+     * Add packets of collected updates for every viewer
+     *
+     * @param packets Packets by viewer
+     */
+    void collect(Map<UUID, List<PacketWrapper<?>>> packets);
+}
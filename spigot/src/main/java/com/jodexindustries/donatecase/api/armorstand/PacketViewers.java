@@ -0,0 +1,99 @@
+package com.jodexindustries.donatecase.api.armorstand;
+
+import com.jodexindustries.donatecase.api.Case;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps viewers of packet armor stands and display entities.
+ * <p>
+ * Player sees a packet armor stand only if they are in the same world,
+ * not farther than {@code DonateCase.PacketViewDistance} blocks from the place where it was created.
+ * Viewers are updated when players join, quit, change world or move to another block
+ * @since 2.2.6.7
+ */
+public final class PacketViewers implements Listener {
+    private static final Set<PacketEntity> creators = new LinkedHashSet<>();
+    private static double distanceSquared = 48 * 48;
+
+    /**
+     * Register viewers listener
+     *
+     * @param plugin Plugin instance
+     */
+    public static void register(Plugin plugin) {
+        double distance = Case.getConfig().getConfig().getDouble("DonateCase.PacketViewDistance", 48);
+        distanceSquared = distance * distance;
+        plugin.getServer().getPluginManager().registerEvents(new PacketViewers(), plugin);
+    }
+
+    static void add(PacketEntity creator) {
+        creators.add(creator);
+    }
+
+    static void remove(PacketEntity creator) {
+        creators.remove(creator);
+    }
+
+    static boolean isInRange(Location origin, Location at) {
+        return at.getWorld() != null && at.getWorld().equals(origin.getWorld())
+                && at.distanceSquared(origin) <= distanceSquared;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        if (creators.isEmpty()) return;
+
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (to == null || (from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY()
+                && from.getBlockZ() == to.getBlockZ() && from.getWorld() == to.getWorld())) return;
+
+        update(event.getPlayer(), to);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        if (creators.isEmpty() || event.getTo() == null) return;
+        update(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChangedWorld(PlayerChangedWorldEvent event) {
+        if (creators.isEmpty()) return;
+        update(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        if (creators.isEmpty()) return;
+        update(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        for (PacketEntity creator : creators) {
+            creator.removeViewer(uuid);
+        }
+    }
+
+    private static void update(Player player, Location at) {
+        for (PacketEntity creator : creators) {
+            creator.updateViewer(player.getUniqueId(), at);
+        }
+    }
+}
@@ -2,8 +2,11 @@ package com.jodexindustries.donatecase.api.data;
 
 import com.j256.ormlite.field.DatabaseField;
 import com.j256.ormlite.table.DatabaseTable;
-import com.jodexindustries.donatecase.tools.ProbabilityCollection;
+import com.jodexindustries.donatecase.api.data.action.CompiledAction;
+import com.jodexindustries.donatecase.tools.AliasSampler;
 import com.jodexindustries.donatecase.tools.Tools;
+import com.jodexindustries.donatecase.tools.VersionedList;
+import com.jodexindustries.donatecase.tools.VersionedMap;
 import org.bukkit.Color;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.enchantments.Enchantment;
@@ -15,6 +18,9 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Class for implementing cases that are loaded into the plugin's memory.
@@ -31,6 +37,13 @@ public class CaseData implements Cloneable {
     private List<String> noKeyActions;
     private OpenType openType;
     private ConfigurationSection animationSettings;
+    private volatile CachedSampler<Item> itemSampler;
+    private volatile CachedActions compiledNoKeyActions;
+
+    /**
+     * Incremented on every change of this case items or their chances, so cached item sampler is rebuilt
+     */
+    private AtomicInteger chanceVersion = new AtomicInteger();
 
     /**
      * Default constructor
@@ -53,12 +66,12 @@ public class CaseData implements Cloneable {
         this.caseType = caseType;
         this.caseDisplayName = caseDisplayName;
         this.animation = animation;
-        this.items = items;
+        this.items = VersionedMap.of(items, chanceVersion);
         this.historyData = historyData;
         this.hologram = hologram;
         this.levelGroups = levelGroups;
         this.gui = gui;
-        this.noKeyActions = noKeyActions;
+        this.noKeyActions = VersionedList.of(noKeyActions);
         this.openType = openType;
         this.animationSettings = animationSettings;
     }
@@ -87,7 +100,7 @@ public class CaseData implements Cloneable {
     }
 
     /**
-     * Get case items
+     * Get case items. Map is mutable, every change of it rebuilds the item sampler
      *
      * @return items
      */
@@ -112,11 +125,27 @@ public class CaseData implements Cloneable {
      * @return Random item
      */
     public Item getRandomItem() {
-        ProbabilityCollection<Item> collection = new ProbabilityCollection<>();
-        for (Item item : items.values()) {
-            collection.add(item, item.chance);
+        return getItemSampler().sample();
+    }
+
+    /**
+     * Get sampler of items by their chances.
+     * Sampler is built once and rebuilt only after items or chances are changed
+     *
+     * @return items sampler
+     * @since 2.2.6.7
+     */
+    public AliasSampler<Item> getItemSampler() {
+        CachedSampler<Item> cached = itemSampler;
+        if (cached == null || !cached.isValid(items)) {
+            // items report chance changes to this case from now on
+            for (Item item : items.values()) {
+                if (item != null) item.chanceVersion = chanceVersion;
+            }
+            cached = new CachedSampler<>(items, Map.Entry::getValue, Item::getChance, chanceVersion);
+            itemSampler = cached;
         }
-        return collection.get();
+        return cached.sampler;
     }
 
     /**
@@ -128,13 +157,29 @@ public class CaseData implements Cloneable {
         this.historyData = historyData;
     }
 
+    /**
+     * Add the newest case opening to history data in memory,
+     * the oldest one will be shifted out
+     *
+     * @param data history data
+     * @since 2.2.6.7
+     */
+    public synchronized void addHistoryData(HistoryData data) {
+        HistoryData[] historyData = this.historyData;
+        if (historyData.length == 0) return;
+        System.arraycopy(historyData, 0, historyData, 1, historyData.length - 1);
+        historyData[0] = data;
+    }
+
     /**
      * Set case items
      *
      * @param items map of CaseData.Item items
      */
     public void setItems(Map<String, Item> items) {
-        this.items = items;
+        this.items = VersionedMap.of(items, chanceVersion);
+        chanceVersion.incrementAndGet();
+        this.itemSampler = null;
     }
 
     /**
@@ -193,7 +238,9 @@ public class CaseData implements Cloneable {
             CaseData clonedCaseData = (CaseData) super.clone();
 
             // Deep clone the map of items
-            clonedCaseData.items = cloneItemsMap(this.items);
+            clonedCaseData.chanceVersion = new AtomicInteger();
+            clonedCaseData.items = VersionedMap.of(cloneItemsMap(this.items), clonedCaseData.chanceVersion);
+            clonedCaseData.itemSampler = null;
 
             clonedCaseData.gui = this.gui.clone();
 
@@ -321,7 +368,24 @@ public class CaseData implements Cloneable {
      * @since 2.2.4.3
      */
     public void setNoKeyActions(List<String> noKeyActions) {
-        this.noKeyActions = noKeyActions;
+        this.noKeyActions = VersionedList.of(noKeyActions);
+        this.compiledNoKeyActions = null;
+    }
+
+    /**
+     * Gets parsed actions to be performed if a player tries to open a case without keys.
+     * Actions are parsed once and parsed again only after they are changed
+     *
+     * @return List of compiled actions
+     * @since 2.2.6.7
+     */
+    public List<CompiledAction> getCompiledNoKeyActions() {
+        CachedActions cached = compiledNoKeyActions;
+        if (cached == null || !cached.isValid(noKeyActions)) {
+            cached = new CachedActions(noKeyActions);
+            compiledNoKeyActions = cached;
+        }
+        return cached.compiled;
     }
 
     /**
@@ -377,6 +441,12 @@ public class CaseData implements Cloneable {
         private List<String> actions;
         private List<String> alternativeActions;
         private Map<String, RandomAction> randomActions;
+        private volatile CachedSampler<String> randomActionSampler;
+        private volatile CachedActions compiledActions;
+        private volatile CachedActions compiledAlternativeActions;
+        // version of case, which sampled this item, and of its random actions
+        private volatile AtomicInteger chanceVersion = new AtomicInteger();
+        private AtomicInteger randomActionsVersion = new AtomicInteger();
 
         /**
          * Default constructor
@@ -399,13 +469,13 @@ public class CaseData implements Cloneable {
             this.index = index;
             this.material = material;
             this.giveType = giveType;
-            this.actions = actions;
-            this.randomActions = randomActions;
-            this.alternativeActions = alternativeActions;
+            this.actions = VersionedList.of(actions);
+            this.randomActions = VersionedMap.of(randomActions, randomActionsVersion);
+            this.alternativeActions = VersionedList.of(alternativeActions);
         }
 
         /**
-         * Get map of random actions
+         * Get map of random actions. Map is mutable, every change of it rebuilds the random actions sampler
          *
          * @return random actions
          */
@@ -430,7 +500,28 @@ public class CaseData implements Cloneable {
          * @param randomActions map of random actions
          */
         public void setRandomActions(Map<String, RandomAction> randomActions) {
-            this.randomActions = randomActions;
+            this.randomActions = VersionedMap.of(randomActions, randomActionsVersion);
+            randomActionsVersion.incrementAndGet();
+            this.randomActionSampler = null;
+        }
+
+        /**
+         * Get sampler of random action names by their chances.
+         * Sampler is built once and rebuilt only after random actions or chances are changed
+         *
+         * @return random actions sampler
+         * @since 2.2.6.7
+         */
+        public AliasSampler<String> getRandomActionSampler() {
+            CachedSampler<String> cached = randomActionSampler;
+            if (cached == null || !cached.isValid(randomActions)) {
+                for (RandomAction randomAction : randomActions.values()) {
+                    if (randomAction != null) randomAction.chanceVersion = randomActionsVersion;
+                }
+                cached = new CachedSampler<>(randomActions, Map.Entry::getKey, RandomAction::getChance, randomActionsVersion);
+                randomActionSampler = cached;
+            }
+            return cached.sampler;
         }
 
         /**
@@ -448,7 +539,24 @@ public class CaseData implements Cloneable {
          * @param actions actions
          */
         public void setActions(List<String> actions) {
-            this.actions = actions;
+            this.actions = VersionedList.of(actions);
+            this.compiledActions = null;
+        }
+
+        /**
+         * Get parsed item actions.
+         * Actions are parsed once and parsed again only after they are changed
+         *
+         * @return compiled actions
+         * @since 2.2.6.7
+         */
+        public List<CompiledAction> getCompiledActions() {
+            CachedActions cached = compiledActions;
+            if (cached == null || !cached.isValid(actions)) {
+                cached = new CachedActions(actions);
+                compiledActions = cached;
+            }
+            return cached.compiled;
         }
 
         /**
@@ -504,6 +612,7 @@ public class CaseData implements Cloneable {
          */
         public void setChance(double chance) {
             this.chance = chance;
+            chanceVersion.incrementAndGet();
         }
 
         /**
@@ -562,7 +671,23 @@ public class CaseData implements Cloneable {
          * @param alternativeActions list of actions
          */
         public void setAlternativeActions(List<String> alternativeActions) {
-            this.alternativeActions = alternativeActions;
+            this.alternativeActions = VersionedList.of(alternativeActions);
+            this.compiledAlternativeActions = null;
+        }
+
+        /**
+         * Get parsed alternative actions
+         *
+         * @return compiled alternative actions
+         * @since 2.2.6.7
+         */
+        public List<CompiledAction> getCompiledAlternativeActions() {
+            CachedActions cached = compiledAlternativeActions;
+            if (cached == null || !cached.isValid(alternativeActions)) {
+                cached = new CachedActions(alternativeActions);
+                compiledAlternativeActions = cached;
+            }
+            return cached.compiled;
         }
 
         /**
@@ -592,6 +717,9 @@ public class CaseData implements Cloneable {
             private double chance;
             private List<String> actions;
             private String displayName;
+            private volatile CachedActions compiledActions;
+            // version of item, which sampled this random action
+            private volatile AtomicInteger chanceVersion = new AtomicInteger();
 
             /**
              * Default constructor
@@ -602,7 +730,7 @@ public class CaseData implements Cloneable {
              */
             public RandomAction(double chance, List<String> actions, String displayName) {
                 this.chance = chance;
-                this.actions = actions;
+                this.actions = VersionedList.of(actions);
                 this.displayName = displayName;
             }
 
@@ -622,7 +750,23 @@ public class CaseData implements Cloneable {
              * @param actions random actions
              */
             public void setActions(List<String> actions) {
-                this.actions = actions;
+                this.actions = VersionedList.of(actions);
+                this.compiledActions = null;
+            }
+
+            /**
+             * Get parsed random actions
+             *
+             * @return compiled random actions
+             * @since 2.2.6.7
+             */
+            public List<CompiledAction> getCompiledActions() {
+                CachedActions cached = compiledActions;
+                if (cached == null || !cached.isValid(actions)) {
+                    cached = new CachedActions(actions);
+                    compiledActions = cached;
+                }
+                return cached.compiled;
             }
 
             /**
@@ -641,6 +785,7 @@ public class CaseData implements Cloneable {
              */
             public void setChance(double chance) {
                 this.chance = chance;
+                chanceVersion.incrementAndGet();
             }
 
             @Override
@@ -654,7 +799,9 @@ public class CaseData implements Cloneable {
             @Override
             public RandomAction clone() {
                 try {
-                    return (RandomAction) super.clone();
+                    RandomAction clonedAction = (RandomAction) super.clone();
+                    clonedAction.chanceVersion = new AtomicInteger();
+                    return clonedAction;
                 } catch (CloneNotSupportedException e) {
                     throw new AssertionError(e);
                 }
@@ -914,7 +1061,10 @@ public class CaseData implements Cloneable {
             try {
                 Item clonedItem = (Item) super.clone();
 
-                clonedItem.randomActions = cloneRandomActionsMap(this.randomActions);
+                clonedItem.chanceVersion = new AtomicInteger();
+                clonedItem.randomActionsVersion = new AtomicInteger();
+                clonedItem.randomActions = VersionedMap.of(cloneRandomActionsMap(this.randomActions), clonedItem.randomActionsVersion);
+                clonedItem.randomActionSampler = null;
 
                 return clonedItem;
             } catch (CloneNotSupportedException e) {
@@ -941,7 +1091,7 @@ public class CaseData implements Cloneable {
     @DatabaseTable(tableName = "history_data")
 
     public static class HistoryData implements Cloneable {
-        @DatabaseField(columnName = "id")
+        @DatabaseField(columnName = "id", generatedId = true)
         private int id;
         @DatabaseField(columnName = "item")
         private String item;
@@ -1230,4 +1380,61 @@ public class CaseData implements Cloneable {
         }
     }
 
+    /**
+     * Sampler with the state it was built from.
+     * Map is checked by identity, its changes and chances by version of the map owner,
+     * which is incremented by {@link VersionedMap} and by chance setters
+     */
+    private static final class CachedSampler<E> {
+        private final AliasSampler<E> sampler;
+        private final Map<?, ?> source;
+        private final AtomicInteger owner;
+        private final int version;
+
+        private <K, V> CachedSampler(Map<K, V> source, Function<Map.Entry<K, V>, E> element, ToDoubleFunction<V> chance,
+                                     AtomicInteger owner) {
+            this.owner = owner;
+            this.version = owner.get();
+            this.source = source;
+
+            int size = source.size();
+            List<E> elements = new ArrayList<>(size);
+            double[] weights = new double[size];
+            for (Map.Entry<K, V> entry : source.entrySet()) {
+                if (entry.getValue() == null) continue;
+                weights[elements.size()] = chance.applyAsDouble(entry.getValue());
+                elements.add(element.apply(entry));
+            }
+            this.sampler = new AliasSampler<>(elements, Arrays.copyOf(weights, elements.size()));
+        }
+
+        private boolean isValid(Map<?, ?> current) {
+            return current == source && version == owner.get();
+        }
+    }
+
+    /**
+     * Compiled actions with the list they were parsed from.
+     * List is checked by identity and by version of {@link VersionedList}, so every change of it is seen
+     */
+    private static final class CachedActions {
+        private final List<CompiledAction> compiled;
+        private final List<String> source;
+        private final int version;
+
+        private CachedActions(@Nullable List<String> source) {
+            this.source = source;
+            this.version = version(source);
+            this.compiled = source == null ? Collections.emptyList() : Collections.unmodifiableList(CompiledAction.compile(source));
+        }
+
+        private boolean isValid(@Nullable List<String> current) {
+            return current == source && version(current) == version;
+        }
+
+        private static int version(@Nullable List<String> list) {
+            return list instanceof VersionedList ? ((VersionedList<String>) list).getVersion() : -1;
+        }
+    }
+
 }
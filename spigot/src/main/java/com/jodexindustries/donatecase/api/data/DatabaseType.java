@@ -5,5 +5,15 @@ package com.jodexindustries.donatecase.api.data;
  */
 public enum DatabaseType {
     MYSQL,
-    SQLITE
+    SQLITE,
+    /**
+     * Embedded H2 database
+     * @since 2.2.6.7
+     */
+    H2,
+    /**
+     * Concurrent maps in memory, not saved after restart
+     * @since 2.2.6.7
+     */
+    MEMORY
 }
@@ -0,0 +1,250 @@
+package com.jodexindustries.donatecase.api.data.action;
+
+import com.jodexindustries.donatecase.api.ActionManager;
+import com.jodexindustries.donatecase.api.Case;
+import com.jodexindustries.donatecase.tools.Tools;
+import com.jodexindustries.donatecase.tools.support.PAPISupport;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Action string, parsed once when case is loaded.
+ * <p>
+ * Cooldown is extracted, text is split into static segments and slots of {@link #CASE_PLACEHOLDERS},
+ * static segments are colored in advance.
+ * Action executor is found on first execution and found again only after actions were registered or unregistered.
+ * Execution fills slots with player values, PlaceholderAPI is called only when text has other placeholders
+ * @since 2.2.6.7
+ */
+public final class CompiledAction {
+    /**
+     * Placeholders of case opening, values are passed to {@link #execute(OfflinePlayer, String[])} in the same order
+     */
+    public static final String[] CASE_PLACEHOLDERS = {
+            "%player%", "%casename%", "%casedisplayname%", "%casetitle%", "%group%", "%groupdisplayname%"
+    };
+
+    private static final Pattern COOLDOWN = Pattern.compile("\\[cooldown:(.*?)]");
+
+    private final String source;
+    private final String[] raw;
+    private final String[] colored;
+    private final int[] slots;
+    private final int cooldown;
+    private final boolean placeholders;
+    private final boolean dynamic;
+    private volatile Resolved resolved;
+
+    private CompiledAction(String source, String[] raw, int[] slots, int cooldown, boolean dynamic) {
+        this.source = source;
+        this.raw = raw;
+        this.slots = slots;
+        this.cooldown = cooldown;
+        this.dynamic = dynamic;
+
+        this.colored = new String[raw.length];
+        boolean placeholders = false;
+        for (int i = 0; i < raw.length; i++) {
+            colored[i] = Tools.rc(raw[i]);
+            if (raw[i].indexOf('%') >= 0) placeholders = true;
+        }
+        this.placeholders = placeholders;
+    }
+
+    /**
+     * Parse action
+     *
+     * @param action Action string, like: {@code [message] &aHello, %player%![cooldown:2]}
+     * @return compiled action
+     */
+    @NotNull
+    public static CompiledAction compile(@NotNull String action) {
+        String text = action;
+        int cooldown = 0;
+
+        Matcher matcher = COOLDOWN.matcher(action);
+        if (matcher.find()) {
+            try {
+                cooldown = Integer.parseInt(matcher.group(1));
+            } catch (NumberFormatException e) {
+                // cooldown is a placeholder or invalid, resolve it on every execution like before
+                return new CompiledAction(action, new String[]{action}, new int[0], 0, true);
+            }
+            text = action.substring(0, matcher.start()) + action.substring(matcher.end());
+        }
+
+        List<String> segments = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int start = 0;
+        int index = text.indexOf('%');
+        while (index >= 0) {
+            int slot = slotAt(text, index);
+            if (slot < 0) {
+                index = text.indexOf('%', index + 1);
+                continue;
+            }
+            segments.add(text.substring(start, index));
+            slots.add(slot);
+            start = index + CASE_PLACEHOLDERS[slot].length();
+            index = text.indexOf('%', start);
+        }
+        segments.add(text.substring(start));
+
+        int[] slotArray = new int[slots.size()];
+        for (int i = 0; i < slotArray.length; i++) slotArray[i] = slots.get(i);
+
+        return new CompiledAction(action, segments.toArray(new String[0]), slotArray, cooldown, false);
+    }
+
+    /**
+     * Parse list of actions
+     *
+     * @param actions Action strings
+     * @return compiled actions in the same order
+     */
+    @NotNull
+    public static List<CompiledAction> compile(@NotNull List<String> actions) {
+        List<CompiledAction> compiled = new ArrayList<>(actions.size());
+        for (String action : actions) {
+            if (action != null) compiled.add(compile(action));
+        }
+        return compiled;
+    }
+
+    /**
+     * Execute action
+     *
+     * @param player Player, who opened case (maybe another reason)
+     * @param values Values of {@link #CASE_PLACEHOLDERS} in the same order,
+     *               or null to keep placeholders as is
+     */
+    public void execute(@NotNull OfflinePlayer player, @Nullable String[] values) {
+        if (dynamic) {
+            executeSource(player, values);
+            return;
+        }
+
+        Resolved resolved = resolve();
+        if (resolved.action == null) return;
+
+        String context;
+        if (placeholders || (values == null && slots.length > 0) || hasPlaceholders(values)) {
+            String text = Tools.rc(setPlaceholders(player, build(raw, values, false)));
+            context = text.replace(resolved.name, "");
+        } else {
+            context = build(resolved.segments, values, true);
+        }
+
+        resolved.action.execute(player, context.trim(), cooldown);
+    }
+
+    /**
+     * Get source action string
+     *
+     * @return action string from case config
+     */
+    @NotNull
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Get action cooldown
+     *
+     * @return cooldown in seconds
+     */
+    public int getCooldown() {
+        return cooldown;
+    }
+
+    private Resolved resolve() {
+        int version = ActionManager.getVersion();
+        Resolved resolved = this.resolved;
+        if (resolved == null || resolved.version != version) {
+            resolved = new Resolved(version, ActionManager.getByStart(colored[0]), colored);
+            this.resolved = resolved;
+        }
+        return resolved;
+    }
+
+    private String build(String[] segments, @Nullable String[] values, boolean color) {
+        if (slots.length == 0) return segments[0];
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(segments[i]);
+            if (values == null) {
+                builder.append(CASE_PLACEHOLDERS[slots[i]]);
+            } else {
+                String value = String.valueOf(values[slots[i]]);
+                builder.append(color ? Tools.rc(value) : value);
+            }
+        }
+        return builder.append(segments[slots.length]).toString();
+    }
+
+    /**
+     * Check whether substituted values may contain PlaceholderAPI placeholders, like display names do
+     */
+    private boolean hasPlaceholders(@Nullable String[] values) {
+        if (values == null) return false;
+        for (int slot : slots) {
+            String value = values[slot];
+            if (value != null && value.indexOf('%') >= 0) return true;
+        }
+        return false;
+    }
+
+    private void executeSource(OfflinePlayer player, @Nullable String[] values) {
+        String action = source;
+        if (values != null) {
+            for (int i = 0; i < CASE_PLACEHOLDERS.length; i++) {
+                action = action.replace(CASE_PLACEHOLDERS[i], String.valueOf(values[i]));
+            }
+        }
+
+        action = Tools.rc(setPlaceholders(player, action));
+        int cooldown = Tools.extractCooldown(action);
+        action = COOLDOWN.matcher(action).replaceFirst("");
+
+        Case.executeAction(player, action, cooldown);
+    }
+
+    private static String setPlaceholders(OfflinePlayer player, String text) {
+        PAPISupport papi = Case.getInstance().papi;
+        return papi == null ? text : papi.setPlaceholders(player, text);
+    }
+
+    private static int slotAt(String text, int index) {
+        for (int i = 0; i < CASE_PLACEHOLDERS.length; i++) {
+            if (text.startsWith(CASE_PLACEHOLDERS[i], index)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Action executor found for registry version, with static segments without action name
+     */
+    private static final class Resolved {
+        private final int version;
+        private final String name;
+        private final CaseAction action;
+        private final String[] segments;
+
+        private Resolved(int version, @Nullable String name, String[] colored) {
+            this.version = version;
+            this.name = name;
+            this.action = name == null ? null : ActionManager.getRegisteredAction(name);
+            this.segments = new String[colored.length];
+            for (int i = 0; i < colored.length; i++) {
+                segments[i] = name == null ? colored[i] : colored[i].replace(name, "");
+            }
+        }
+    }
+}
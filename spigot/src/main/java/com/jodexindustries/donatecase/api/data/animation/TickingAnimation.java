@@ -0,0 +1,30 @@
+package com.jodexindustries.donatecase.api.data.animation;
+
+import com.jodexindustries.donatecase.api.AnimationTicker;
+
+/**
+ * Animation, driven by {@link AnimationTicker} instead of its own scheduler task.
+ * <p>
+ * If {@link com.jodexindustries.donatecase.api.data.JavaAnimation} implements this interface,
+ * it is scheduled automatically after {@link IAnimation#start()}
+ * @since 2.2.6.7
+ */
+public interface TickingAnimation {
+
+    /**
+     * Called in the main thread every {@link #getPeriod()} ticks.
+     * Optional work, like particles, may be skipped when {@link AnimationTicker#isOverBudget()} is true
+     *
+     * @return false, when animation is finished and must not be ticked anymore
+     */
+    boolean tick();
+
+    /**
+     * Get number of server ticks between calls of {@link #tick()}
+     *
+     * @return period in ticks, 1 by default
+     */
+    default long getPeriod() {
+        return 1;
+    }
+}
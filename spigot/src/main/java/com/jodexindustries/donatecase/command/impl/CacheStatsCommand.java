@@ -0,0 +1,93 @@
+package com.jodexindustries.donatecase.command.impl;
+
+import com.jodexindustries.donatecase.api.Case;
+import com.jodexindustries.donatecase.api.SubCommandManager;
+import com.jodexindustries.donatecase.api.caching.CacheStats;
+import com.jodexindustries.donatecase.api.caching.ConcurrentCache;
+import com.jodexindustries.donatecase.api.data.SubCommandType;
+import com.jodexindustries.donatecase.api.data.subcommand.SubCommand;
+import com.jodexindustries.donatecase.api.data.subcommand.SubCommandExecutor;
+import com.jodexindustries.donatecase.api.data.subcommand.SubCommandTabCompleter;
+import com.jodexindustries.donatecase.tools.Tools;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class CacheStatsCommand implements SubCommandExecutor, SubCommandTabCompleter {
+
+    public static void register(SubCommandManager manager) {
+        CacheStatsCommand command = new CacheStatsCommand();
+
+        SubCommand subCommand = manager.builder("cachestats")
+                .executor(command)
+                .tabCompleter(command)
+                .permission(SubCommandType.ADMIN.permission)
+                .build();
+        manager.registerSubCommand(subCommand);
+    }
+
+    @Override
+    public void execute(@NotNull CommandSender sender, @NotNull String label, @NotNull String[] args) {
+        boolean reset = args.length > 0 && args[0].equalsIgnoreCase("reset");
+
+        for (Map.Entry<String, ConcurrentCache<?, ?>> entry : Case.getCaches().entrySet()) {
+            ConcurrentCache<?, ?> cache = entry.getValue();
+            CacheStats stats = cache.getStats();
+
+            Tools.msgRaw(sender, Tools.rt(lang("header", "&6%cache &7(max age &a%maxage &7ticks, size &a%size&7)"),
+                    "%cache:" + entry.getKey(), "%maxage:" + cache.getMaxAge(), "%size:" + cache.size()));
+            Tools.msgRaw(sender, Tools.rt(lang("hits",
+                            "&9- &2Hits: &a%hits &2Misses: &c%misses &2Hit rate: &a%hitrate &2Evictions: &a%evictions"),
+                    "%hits:" + stats.getHits(), "%misses:" + stats.getMisses(),
+                    "%hitrate:" + String.format(Locale.ROOT, "%.1f%%", stats.getHitRate() * 100),
+                    "%evictions:" + stats.getEvictions()));
+            Tools.msgRaw(sender, Tools.rt(lang("loads",
+                            "&9- &2Loads: &a%loads &2Failed: &c%failures &2Avg: &a%avgloadms &2p50: &a%p50 &2p95: &a%p95 &2p99: &a%p99"),
+                    "%loads:" + stats.getLoads(), "%failures:" + stats.getLoadFailures(),
+                    "%avgload:" + String.format(Locale.ROOT, "%.2f", stats.getAverageLoadTime()),
+                    "%p50:" + formatPercentile(stats.getLoadTimePercentile(50)),
+                    "%p95:" + formatPercentile(stats.getLoadTimePercentile(95)),
+                    "%p99:" + formatPercentile(stats.getLoadTimePercentile(99))));
+            Tools.msgRaw(sender, Tools.rt(lang("load-times", "&9- &2Load times: &7%histogram"),
+                    "%histogram:" + formatHistogram(stats.getLoadTimes())));
+
+            if (reset) stats.reset();
+        }
+
+        if (reset) Tools.msgRaw(sender, lang("reset", "&aCache statistics reset"));
+    }
+
+    @Override
+    public List<String> getTabCompletions(@NotNull CommandSender sender, @NotNull String label, @NotNull String[] args) {
+        List<String> value = new ArrayList<>();
+        if (args.length == 1 && "reset".startsWith(args[0].toLowerCase())) value.add("reset");
+        return value;
+    }
+
+    private static String lang(String key, String def) {
+        return Case.getConfig().getLang().getString("cache-stats." + key, def);
+    }
+
+    private static String formatPercentile(long bound) {
+        if (bound < 0) return ">" + CacheStats.LOAD_BUCKETS[CacheStats.LOAD_BUCKETS.length - 1] + "ms";
+        return "<" + bound + "ms";
+    }
+
+    private static String formatHistogram(long[] loadTimes) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < loadTimes.length; i++) {
+            if (builder.length() > 0) builder.append(' ');
+            if (i < CacheStats.LOAD_BUCKETS.length) {
+                builder.append('<').append(CacheStats.LOAD_BUCKETS[i]);
+            } else {
+                builder.append('>').append(CacheStats.LOAD_BUCKETS[i - 1]);
+            }
+            builder.append(':').append(loadTimes[i]);
+        }
+        return builder.toString();
+    }
+}
@@ -14,12 +14,23 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
 
 import static com.jodexindustries.donatecase.command.GlobalCommand.resolveSDGCompletions;
 
 /**
  * Class for /dc givekey subcommand implementation
+ * <p>
+ * Target may be a player name, {@code *} or {@code @online} for all online players,
+ * or {@code file:<path>} for a list of players in plugin folder, one {@code name [keys]} per line.
+ * The file is read asynchronously
  */
 public class GiveKeyCommand implements SubCommandExecutor, SubCommandTabCompleter {
 
@@ -50,6 +61,10 @@ public class GiveKeyCommand implements SubCommandExecutor, SubCommandTabComplete
             if (Case.hasCaseByType(caseName)) {
                 CaseData data = Case.getCase(caseName);
                 if (data == null) return;
+                if (isBulkTarget(player)) {
+                    giveBulk(sender, player, data, keys);
+                    return;
+                }
                 Case.addKeys(caseName, player, keys);
                 Tools.msg(sender, Tools.rt(Case.getConfig().getLang().getString("keys-given"),
                         "%player:" + player, "%key:" + keys, "%casetitle:" + data.getCaseTitle(),
@@ -65,9 +80,92 @@ public class GiveKeyCommand implements SubCommandExecutor, SubCommandTabComplete
         }
     }
 
+    private static boolean isBulkTarget(String target) {
+        return target.equals("*") || target.equalsIgnoreCase("@online") || target.startsWith("file:");
+    }
+
+    private static void giveBulk(CommandSender sender, String target, CaseData data, int keys) {
+        if (!target.startsWith("file:")) {
+            Map<String, Integer> grants = new LinkedHashMap<>();
+            for (Player player : Bukkit.getOnlinePlayers()) grants.put(player.getName(), keys);
+            give(sender, data, keys, grants);
+            return;
+        }
+
+        String path = target.substring(5);
+        Bukkit.getScheduler().runTaskAsynchronously(Case.getInstance(), () -> {
+            Map<String, Integer> grants = new LinkedHashMap<>();
+            try {
+                readTargets(path, keys, grants);
+            } catch (IOException | NumberFormatException e) {
+                Bukkit.getScheduler().runTask(Case.getInstance(), () ->
+                        Tools.msg(sender, Tools.rt(Case.getConfig().getLang().getString("keys-file-error",
+                                "&cCould not read players file &6%file&c: %error"), "%file:" + path, "%error:" + e.getMessage())));
+                return;
+            }
+            Bukkit.getScheduler().runTask(Case.getInstance(), () -> give(sender, data, keys, grants));
+        });
+    }
+
+    private static void give(CommandSender sender, CaseData data, int keys, Map<String, Integer> grants) {
+        String caseName = data.getCaseType();
+        Case.addKeysBulk(caseName, grants).whenComplete((result, throwable) ->
+                Bukkit.getScheduler().runTask(Case.getInstance(), () -> {
+                    if (throwable != null) {
+                        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                                ? throwable.getCause() : throwable;
+                        Tools.msg(sender, Tools.rt(Case.getConfig().getLang().getString("keys-bulk-error",
+                                        "&cCould not give keys of case &6%casetitle&c: %error"),
+                                "%casetitle:" + data.getCaseTitle(), "%casedisplayname:" + data.getCaseDisplayName(),
+                                "%case:" + caseName, "%error:" + cause.getMessage()));
+                        return;
+                    }
+                    sendGiven(sender, data, keys, grants);
+                }));
+    }
+
+    private static void sendGiven(CommandSender sender, CaseData data, int keys, Map<String, Integer> grants) {
+        String caseName = data.getCaseType();
+        Tools.msg(sender, Tools.rt(Case.getConfig().getLang().getString("keys-given-bulk",
+                        "&eGiven &c%key &ekey(s) of case &6%casetitle &eto &6%count &eplayers"),
+                "%count:" + grants.size(), "%key:" + keys, "%casetitle:" + data.getCaseTitle(),
+                "%casedisplayname:" + data.getCaseDisplayName(), "%case:" + caseName));
+        for (Map.Entry<String, Integer> entry : grants.entrySet()) {
+            Player player = Bukkit.getPlayerExact(entry.getKey());
+            if (player == null) continue;
+            Tools.msg(player, Tools.rt(Case.getConfig().getLang().getString("keys-given-target"),
+                    "%player:" + entry.getKey(), "%key:" + entry.getValue(), "%casetitle:" + data.getCaseTitle(),
+                    "%casedisplayname:" + data.getCaseDisplayName(), "%case:" + caseName));
+        }
+    }
+
+    /**
+     * Read players file, every line is a player name and optional number of keys
+     */
+    private static void readTargets(String path, int keys, Map<String, Integer> grants) throws IOException {
+        File folder = Case.getInstance().getDataFolder().getCanonicalFile();
+        File file = new File(folder, path).getCanonicalFile();
+        if (!file.toPath().startsWith(folder.toPath())) throw new IOException("file is outside of plugin folder");
+
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            String[] parts = line.split("\\s+");
+            int amount = parts.length > 1 ? Integer.parseInt(parts[1]) : keys;
+            grants.merge(parts[0], amount, Integer::sum);
+        }
+    }
+
     @Override
     public List<String> getTabCompletions(@NotNull CommandSender sender, @NotNull String label, String[] args) {
-        return resolveSDGCompletions(args);
+        List<String> list = resolveSDGCompletions(args);
+        if (args.length == 1) {
+            for (String target : new String[]{"*", "@online", "file:"}) {
+                if (target.startsWith(args[0])) list.add(target);
+            }
+        }
+        return list;
     }
 
 }
@@ -8,7 +8,9 @@ import com.jodexindustries.donatecase.api.data.subcommand.SubCommand;
 import com.jodexindustries.donatecase.api.data.subcommand.SubCommandExecutor;
 import com.jodexindustries.donatecase.api.data.subcommand.SubCommandTabCompleter;
 import com.jodexindustries.donatecase.command.GlobalCommand;
+import com.jodexindustries.donatecase.gui.items.OPENItemClickHandlerImpl;
 import com.jodexindustries.donatecase.tools.Tools;
+import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
@@ -41,17 +43,41 @@ public class OpenCaseCommand implements SubCommandExecutor, SubCommandTabComplet
             if (args.length >= 1) {
                 String caseName = args[0];
                 if (Case.hasCaseByType(caseName)) {
-                    Case.getKeysAsync(caseName, playerName).thenAcceptAsync((keys) -> {
-                        if (keys >= 1) {
-                            Case.removeKeys(caseName, playerName, 1);
-                            CaseData data = Case.getCase(caseName);
-                            if (data == null) return;
-                            CaseData.Item winGroup = data.getRandomItem();
-                            Case.animationPreEnd(data, player, player.getLocation(), winGroup);
-                        } else {
-                            Tools.msg(player, Case.getConfig().getLang().getString("no-keys"));
+                    if (args.length >= 2) {
+                        int amount;
+                        try {
+                            amount = Integer.parseInt(args[1]);
+                        } catch (NumberFormatException e) {
+                            Tools.msgRaw(sender, Tools.rt(Case.getConfig().getLang().getString("number-format-exception"), "%string:" + args[1]));
+                            return;
                         }
-                    });
+                        if (amount < 1) {
+                            Tools.msg(sender, Tools.rt(Case.getConfig().getLang().getString("multi-open-invalid-amount",
+                                    "&cAmount of cases must be at least 1, got &6%amount"), "%amount:" + amount));
+                            return;
+                        }
+                        int max = Case.getConfig().getConfig().getInt("DonateCase.MultiOpen.Max", 64);
+                        if (amount > 1) {
+                            openCases(player, caseName, Math.min(amount, max));
+                            return;
+                        }
+                    }
+                    Case.removeKeysIfEnough(caseName, playerName, 1).whenComplete((removed, throwable) ->
+                            Bukkit.getScheduler().runTask(Case.getInstance(), () -> {
+                                CaseData data = Case.getCase(caseName);
+                                if (throwable != null) {
+                                    Case.getInstance().getLogger().warning(throwable.getMessage());
+                                    if (data != null) OPENItemClickHandlerImpl.sendOpenError(player, data);
+                                    return;
+                                }
+                                if (removed) {
+                                    if (data == null) return;
+                                    CaseData.Item winGroup = data.getRandomItem();
+                                    Case.animationPreEnd(data, player, player.getLocation(), winGroup);
+                                } else {
+                                    Tools.msg(player, Case.getConfig().getLang().getString("no-keys"));
+                                }
+                            }));
                 } else {
                     Tools.msg(sender, Tools.rt(Case.getConfig().getLang().getString("case-does-not-exist"), "%case:" + caseName));
                 }
@@ -61,6 +87,22 @@ public class OpenCaseCommand implements SubCommandExecutor, SubCommandTabComplet
         }
     }
 
+    private static void openCases(Player player, String caseName, int amount) {
+        CaseData data = Case.getCase(caseName);
+        if (data == null) return;
+
+        Case.openCases(data, player, player.getLocation(), amount).whenComplete((items, throwable) -> {
+            if (throwable != null) {
+                Case.getInstance().getLogger().warning(throwable.getMessage());
+                Bukkit.getScheduler().runTask(Case.getInstance(), () -> OPENItemClickHandlerImpl.sendOpenError(player, data));
+            } else if (items.isEmpty()) {
+                Tools.msg(player, Case.getConfig().getLang().getString("no-keys"));
+            } else {
+                OPENItemClickHandlerImpl.sendSummary(player, data, items);
+            }
+        });
+    }
+
     @Override
     public List<String> getTabCompletions(@NotNull CommandSender sender, @NotNull String label, String[] args) {
         List<String> list = new ArrayList<>(Case.getConfig().getCasesConfig().getCases().keySet());
@@ -0,0 +1,128 @@
+package com.jodexindustries.donatecase.command.impl;
+
+import com.jodexindustries.donatecase.api.Case;
+import com.jodexindustries.donatecase.api.SubCommandManager;
+import com.jodexindustries.donatecase.api.data.CaseData;
+import com.jodexindustries.donatecase.api.data.SubCommandType;
+import com.jodexindustries.donatecase.api.data.subcommand.SubCommand;
+import com.jodexindustries.donatecase.api.data.subcommand.SubCommandExecutor;
+import com.jodexindustries.donatecase.api.data.subcommand.SubCommandTabCompleter;
+import com.jodexindustries.donatecase.tools.DropSimulator;
+import com.jodexindustries.donatecase.tools.Tools;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class SimulateCommand implements SubCommandExecutor, SubCommandTabCompleter {
+    private static final long DEFAULT_ITERATIONS = 1_000_000;
+    private static final long MAX_ITERATIONS = 100_000_000;
+
+    public static void register(SubCommandManager manager) {
+        SimulateCommand command = new SimulateCommand();
+
+        SubCommand subCommand = manager.builder("simulate")
+                .executor(command)
+                .tabCompleter(command)
+                .permission(SubCommandType.ADMIN.permission)
+                .build();
+        manager.registerSubCommand(subCommand);
+    }
+
+    @Override
+    public void execute(@NotNull CommandSender sender, @NotNull String label, @NotNull String[] args) {
+        if (args.length == 0) {
+            Tools.msgRaw(sender, Tools.rt(lang("usage", "&c/%cmd simulate (case) [iterations]"), "%cmd:" + label));
+            return;
+        }
+
+        CaseData caseData = Case.getCase(args[0]);
+        if (caseData == null) {
+            Tools.msg(sender, Tools.rt(Case.getConfig().getLang().getString("case-does-not-exist"), "%case:" + args[0]));
+            return;
+        }
+        if (caseData.getItems().isEmpty()) {
+            Tools.msg(sender, Tools.rt(lang("no-items", "&cCase &6%case &chas no items"), "%case:" + args[0]));
+            return;
+        }
+
+        long iterations = DEFAULT_ITERATIONS;
+        if (args.length >= 2) {
+            try {
+                iterations = Long.parseLong(args[1]);
+            } catch (NumberFormatException e) {
+                Tools.msgRaw(sender, Tools.rt(Case.getConfig().getLang().getString("number-format-exception"), "%string:" + args[1]));
+                return;
+            }
+        }
+        iterations = Math.max(1, Math.min(iterations, MAX_ITERATIONS));
+
+        long start = System.nanoTime();
+        DropSimulator.simulate(caseData, iterations).whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                Tools.msg(sender, Tools.rt(lang("failed", "&cSimulation failed: %error"), "%error:" + throwable.getMessage()));
+                return;
+            }
+            sendResult(sender, result, (System.nanoTime() - start) / 1_000_000);
+        });
+    }
+
+    @Override
+    public List<String> getTabCompletions(@NotNull CommandSender sender, @NotNull String label, @NotNull String[] args) {
+        List<String> value = new ArrayList<>();
+        if (args.length == 1) {
+            value.addAll(Case.caseData.keySet());
+        } else if (args.length == 2) {
+            value.add(String.valueOf(DEFAULT_ITERATIONS));
+        }
+
+        return value.stream()
+                .filter(tmp -> tmp.startsWith(args[args.length - 1]))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static void sendResult(CommandSender sender, DropSimulator.Result result, long millis) {
+        Tools.msgRaw(sender, Tools.rt(lang("result",
+                        "&6%case &7- &a%iterations &7openings in &a%timems &7(%threads threads, sampler &a%drawns&7 per draw)"),
+                "%case:" + result.getCaseType(), "%iterations:" + result.getIterations(), "%time:" + millis,
+                "%threads:" + result.getWorkers(), "%draw:" + String.format(Locale.ROOT, "%.1f", result.getNanosPerDraw())));
+
+        Tools.msgRaw(sender, lang("items", "&6Items &7(configured -> observed)"));
+        String rate = lang("rate", "&9- &a%name &7%expected -> %observed (%difference)");
+        for (DropSimulator.Rate itemRate : result.getItems()) {
+            sendRate(sender, rate, itemRate);
+        }
+
+        Tools.msgRaw(sender, lang("groups", "&6Groups"));
+        for (DropSimulator.Rate groupRate : result.getGroups().values()) {
+            sendRate(sender, rate, groupRate);
+        }
+
+        if (result.getRandomActions().isEmpty()) return;
+        Tools.msgRaw(sender, lang("random-actions", "&6Random actions &7(of item openings)"));
+        String actionRate = lang("random-action-rate", "  &9- &2%name &7%expected -> %observed (%difference)");
+        for (Map.Entry<String, List<DropSimulator.Rate>> entry : result.getRandomActions().entrySet()) {
+            Tools.msgRaw(sender, Tools.rt(lang("random-actions-item", "&9- &a%item"), "%item:" + entry.getKey()));
+            for (DropSimulator.Rate randomActionRate : entry.getValue()) {
+                sendRate(sender, actionRate, randomActionRate);
+            }
+        }
+    }
+
+    private static void sendRate(CommandSender sender, String format, DropSimulator.Rate rate) {
+        double difference = (rate.getObserved() - rate.getExpected()) * 100;
+        Tools.msgRaw(sender, Tools.rt(format, "%name:" + rate.getName(),
+                "%expected:" + String.format(Locale.ROOT, "%.4f%%", rate.getExpected() * 100),
+                "%observed:" + String.format(Locale.ROOT, "%.4f%%", rate.getObserved() * 100),
+                "%difference:" + String.format(Locale.ROOT, "%+.4f", difference)));
+    }
+
+    private static String lang(String key, String def) {
+        return Case.getConfig().getLang().getString("simulate." + key, def);
+    }
+}
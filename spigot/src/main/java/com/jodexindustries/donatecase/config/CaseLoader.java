@@ -7,6 +7,7 @@ import com.jodexindustries.donatecase.api.data.CaseData;
 import com.jodexindustries.donatecase.api.data.GUI;
 import com.jodexindustries.donatecase.api.data.gui.GUITypedItem;
 import com.jodexindustries.donatecase.api.events.DonateCaseReloadEvent;
+import com.jodexindustries.donatecase.database.CaseIndex;
 import com.jodexindustries.donatecase.tools.Logger;
 import com.jodexindustries.donatecase.tools.Tools;
 import org.bukkit.Bukkit;
@@ -60,6 +61,8 @@ public class CaseLoader {
 
             if (caseData != null) {
                 Case.caseData.put(caseType, caseData);
+                CaseIndex.indexOf(caseType);
+                loadHistoryData(caseData);
                 count++;
             }
         }
@@ -70,6 +73,22 @@ public class CaseLoader {
         Logger.log("&aLoaded &c" + count + "&a cases!");
     }
 
+    /**
+     * Fill history data in memory with the last openings from database
+     *
+     * @param caseData Loaded case
+     */
+    private void loadHistoryData(CaseData caseData) {
+        CaseData.HistoryData[] historyData = caseData.getHistoryData();
+        plugin.database.getHistoryDataByCaseType(caseData.getCaseType(), historyData.length).thenAccept(list -> {
+            synchronized (caseData) {
+                for (int i = 0; i < list.size() && i < historyData.length; i++) {
+                    historyData[i] = list.get(i);
+                }
+            }
+        });
+    }
+
     private CaseData loadCaseData(String caseType, ConfigurationSection caseSection) {
         CaseData.OpenType openType = CaseData.OpenType.getOpenType(caseSection.getString("OpenType", "GUI"));
         String caseTitle = Tools.rc(caseSection.getString("Title", ""));
@@ -93,8 +112,24 @@ public class CaseLoader {
 
         List<String> noKeyActions = caseSection.getStringList("NoKeyActions");
 
-        return new CaseData(caseType, caseDisplayName, animationName, items, new CaseData.HistoryData[10],
+        CaseData caseData = new CaseData(caseType, caseDisplayName, animationName, items, new CaseData.HistoryData[10],
                 hologram, levelGroups, gui, noKeyActions, openType, animationSettings);
+        compileActions(caseData);
+        return caseData;
+    }
+
+    /**
+     * Parse all case actions in advance, so case opening only fills placeholders
+     */
+    private void compileActions(CaseData caseData) {
+        caseData.getCompiledNoKeyActions();
+        for (CaseData.Item item : caseData.getItems().values()) {
+            item.getCompiledActions();
+            item.getCompiledAlternativeActions();
+            for (CaseData.Item.RandomAction randomAction : item.getRandomActions().values()) {
+                randomAction.getCompiledActions();
+            }
+        }
     }
 
     private CaseData.Hologram loadHologram(ConfigurationSection caseSection) {
@@ -3,6 +3,7 @@ package com.jodexindustries.donatecase.config;
 import com.jodexindustries.donatecase.DonateCase;
 import com.jodexindustries.donatecase.api.Case;
 import com.jodexindustries.donatecase.api.data.DatabaseType;
+import com.jodexindustries.donatecase.database.CaseDatabase;
 import com.jodexindustries.donatecase.tools.Logger;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.jetbrains.annotations.NotNull;
@@ -10,6 +11,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.logging.Level;
 
@@ -106,7 +108,21 @@ public class Config {
             Case.historyCache.setMaxAge(caching);
         }
 
-        plugin.databaseType = getConfig().getBoolean("MySql.Enabled") ? DatabaseType.MYSQL : DatabaseType.SQLITE;
+        String storageType = getConfig().getString("DonateCase.Database.Type", "SQLITE").toUpperCase(Locale.ROOT);
+        if (getConfig().getBoolean("DonateCase.MySql.Enabled")) storageType = "MYSQL";
+        plugin.storageType = storageType;
+        try {
+            plugin.databaseType = DatabaseType.valueOf(storageType);
+        } catch (IllegalArgumentException e) {
+            if (CaseDatabase.isStorageRegistered(storageType)) {
+                // storage registered by addon, may be shared between servers like MySQL
+                plugin.databaseType = DatabaseType.MYSQL;
+            } else {
+                plugin.getLogger().warning("Unknown database type " + storageType + ", SQLITE will be used");
+                plugin.storageType = "SQLITE";
+                plugin.databaseType = DatabaseType.SQLITE;
+            }
+        }
     }
 
     @Nullable
@@ -1,30 +1,48 @@
 package com.jodexindustries.donatecase.database;
 
-import com.j256.ormlite.dao.Dao;
-import com.j256.ormlite.dao.DaoManager;
-import com.j256.ormlite.jdbc.JdbcConnectionSource;
-import com.j256.ormlite.logger.Level;
-import com.j256.ormlite.stmt.UpdateBuilder;
-import com.j256.ormlite.table.TableUtils;
 import com.jodexindustries.donatecase.DonateCase;
+import com.jodexindustries.donatecase.api.caching.entry.InfoEntry;
 import com.jodexindustries.donatecase.api.data.CaseData;
 import com.jodexindustries.donatecase.api.data.DatabaseType;
-import com.jodexindustries.donatecase.database.entities.HistoryDataTable;
-import com.jodexindustries.donatecase.database.entities.OpenInfoTable;
-import com.jodexindustries.donatecase.database.entities.PlayerKeysTable;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 public class CaseDatabase {
-    private Dao<CaseData.HistoryData, String> historyDataTables;
-    private Dao<PlayerKeysTable, String> playerKeysTables;
-    private Dao<OpenInfoTable, String> openInfoTables;
-    private JdbcConnectionSource connectionSource;
+    /**
+     * Map of all registered storages by type name
+     */
+    private static final Map<String, CaseStorage.StorageFactory> registeredStorages = new ConcurrentHashMap<>();
+
+    static {
+        registerStorage("MYSQL", instance -> new OrmLiteStorage(instance, DatabaseType.MYSQL));
+        registerStorage("SQLITE", instance -> new OrmLiteStorage(instance, DatabaseType.SQLITE));
+        registerStorage("H2", H2Storage::new);
+        registerStorage("MEMORY", instance -> new MemoryStorage());
+    }
+
+    private CaseStorage storage;
+    private WriteBehindLedger ledger;
+    private DatabaseExecutor executor;
+    private BukkitTask retentionTask;
+    private int historyKeep;
+    private boolean sessionsEnabled;
+
+    private final Map<String, PlayerSession> sessions = new ConcurrentHashMap<>();
+    /**
+     * Guards session lookup together with queueing the change, so a session published while
+     * a change is queued can not miss it. Only held for memory operations, taken after ledger lock
+     */
+    private final Object sessionLock = new Object();
 
     private final DonateCase instance;
 
@@ -32,87 +50,364 @@ public class CaseDatabase {
         this.instance = instance;
     }
 
-    public void connect() {
-        ConfigurationSection mysqlSection = instance.config.getConfig().getConfigurationSection("DonateCase.MySql");
-        if(mysqlSection == null) instance.databaseType = DatabaseType.SQLITE;
+    /**
+     * Register storage, which can be selected with {@code DonateCase.Database.Type} in Config.yml.
+     * Should be called before DonateCase is enabled, for example in {@code onLoad} of addon
+     *
+     * @param type    Storage type name, case-insensitive
+     * @param factory Storage factory
+     * @since 2.2.6.7
+     */
+    public static void registerStorage(@NotNull String type, @NotNull CaseStorage.StorageFactory factory) {
+        registeredStorages.put(type.toUpperCase(Locale.ROOT), factory);
+    }
 
-        String url;
+    /**
+     * Unregister storage
+     *
+     * @param type Storage type name, case-insensitive
+     * @since 2.2.6.7
+     */
+    public static void unregisterStorage(@NotNull String type) {
+        registeredStorages.remove(type.toUpperCase(Locale.ROOT));
+    }
 
-        try {
-            if (instance.databaseType == DatabaseType.MYSQL) {
-                String database = mysqlSection.getString("DataBase");
-                String port = mysqlSection.getString("Port");
-                String host = mysqlSection.getString("Host");
-                String user = mysqlSection.getString("User");
-                String password = mysqlSection.getString("Password");
-
-                url = "jdbc:mysql://" + host + ":" + port + "/" + database + "?autoReconnect=true";
-                connectionSource = new JdbcConnectionSource(url, user, password);
-            } else {
-                connectionSource = new JdbcConnectionSource("jdbc:sqlite:" +
-                        instance.getDataFolder().getAbsolutePath() + "/database.db");
-            }
+    /**
+     * Check for storage registration
+     *
+     * @param type Storage type name, case-insensitive
+     * @return true, if registered
+     * @since 2.2.6.7
+     */
+    public static boolean isStorageRegistered(@NotNull String type) {
+        return registeredStorages.containsKey(type.toUpperCase(Locale.ROOT));
+    }
 
-            com.j256.ormlite.logger.Logger.setGlobalLogLevel(Level.WARNING);
+    public void connect() {
+        ConfigurationSection section = instance.config.getConfig().getConfigurationSection("DonateCase.Database");
+        if (section == null) section = instance.config.getConfig().createSection("DonateCase.Database");
+
+        CaseStorage.StorageFactory factory = registeredStorages.get(instance.storageType);
+        if (factory == null) {
+            instance.getLogger().warning("Storage " + instance.storageType + " is not registered, SQLITE will be used");
+            instance.storageType = "SQLITE";
+            instance.databaseType = DatabaseType.SQLITE;
+            factory = registeredStorages.get("SQLITE");
+        }
+        if (instance.storageType.equals("H2") && !H2Storage.loadDriver(instance)) {
+            instance.getLogger().warning("H2 storage can not be used, SQLITE will be used");
+            instance.storageType = "SQLITE";
+            instance.databaseType = DatabaseType.SQLITE;
+            factory = registeredStorages.get("SQLITE");
+        }
 
-            TableUtils.createTableIfNotExists(connectionSource, HistoryDataTable.class);
-            TableUtils.createTableIfNotExists(connectionSource, PlayerKeysTable.class);
-            TableUtils.createTableIfNotExists(connectionSource, OpenInfoTable.class);
-            historyDataTables = DaoManager.createDao(connectionSource, CaseData.HistoryData.class);
-            playerKeysTables = DaoManager.createDao(connectionSource, PlayerKeysTable.class);
-            openInfoTables = DaoManager.createDao(connectionSource, OpenInfoTable.class);
+        storage = factory.create(instance);
+        try {
+            storage.connect(section);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+
+        executor = new DatabaseExecutor(instance, storage.getThreads(),
+                section.getInt("Executor.QueueSize", 1000),
+                section.getLong("Executor.SubmitTimeout", 500),
+                section.getLong("Executor.WarnWait", 1000));
+
+        ledger = new WriteBehindLedger(instance, this,
+                section.getLong("WriteBehind.FlushInterval", 20),
+                section.getInt("WriteBehind.MaxPending", 500));
+        ledger.start();
+
+        sessionsEnabled = section.getBoolean("Sessions", true);
+        // players who are already online, for example after reload
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            UUID uuid = player.getUniqueId();
+            String name = player.getName();
+            executor.run(() -> loadSession(uuid, name));
+        }
+
+        historyKeep = Math.max(1, section.getInt("History.Keep", 10));
+        int historyBatch = Math.max(1, section.getInt("History.CleanupBatch", 500));
+        long cleanupInterval = Math.max(20, section.getLong("History.CleanupInterval", 1200));
+        retentionTask = Bukkit.getScheduler().runTaskTimerAsynchronously(instance,
+                () -> executor.run(() -> pruneHistory(historyKeep, historyBatch)), cleanupInterval, cleanupInterval);
     }
 
-    public CompletableFuture<Integer> getKeys(String name, String player) {
-        return CompletableFuture.supplyAsync(() -> {
-            int keys = 0;
+    /**
+     * Get storage behind this database
+     *
+     * @return storage
+     * @since 2.2.6.7
+     */
+    public CaseStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Get number of openings kept in history for each case type
+     *
+     * @return history size
+     * @since 2.2.6.7
+     */
+    public int getHistoryKeep() {
+        return historyKeep;
+    }
+
+    /**
+     * Bind player name to his UUID, then load keys and open counts of player with one query
+     * and keep them in memory until he leaves.
+     * Called from {@link org.bukkit.event.player.AsyncPlayerPreLoginEvent}, so it is blocking
+     *
+     * @param uuid   Player UUID
+     * @param player Player name
+     * @since 2.2.6.7
+     */
+    public void loadSession(UUID uuid, String player) {
+        PlayerSession session = new PlayerSession(player);
+        // stored values and pending deltas must be read without a flush in between
+        synchronized (ledger) {
             try {
-                List<PlayerKeysTable> results = playerKeysTables.queryBuilder()
-                        .where()
-                        .eq("player", player)
-                        .and()
-                        .eq("case_name", name)
-                        .query();
-
-                if (!results.isEmpty()) {
-                    keys = results.get(0).getKeys();
-                }
+                storage.identify(uuid, player);
+                if (!sessionsEnabled) return;
+
+                storage.loadPlayer(player, session);
             } catch (SQLException e) {
                 instance.getLogger().warning(e.getMessage());
+                return;
             }
-            return keys;
-        });
+
+            // changes queued after this point see the session and update it themselves
+            synchronized (sessionLock) {
+                ledger.forEachPending(player, (caseType, keys) -> session.setKeys(caseType, keys.apply(session.getKeys(caseType))),
+                        (caseType, count) -> session.setCount(caseType, count.apply(session.getCount(caseType))));
+                sessions.put(player, session);
+            }
+        }
+    }
+
+    /**
+     * Forget player session and write his pending changes
+     *
+     * @param player Player name
+     * @since 2.2.6.7
+     */
+    public void unloadSession(String player) {
+        if (sessions.remove(player) == null) return;
+        executor.run(() -> ledger.flush(player));
+    }
+
+    /**
+     * Forget player session and write his pending changes, but only if it is still the given session.
+     * Used to expire a session of player, who never joined after it was loaded
+     *
+     * @param player  Player name
+     * @param session Session to forget
+     * @since 2.2.6.7
+     */
+    public void unloadSession(String player, PlayerSession session) {
+        if (!sessions.remove(player, session)) return;
+        executor.run(() -> ledger.flush(player));
+    }
+
+    /**
+     * Get loaded session of online player
+     *
+     * @param player Player name
+     * @return session or null, if not loaded
+     * @since 2.2.6.7
+     */
+    @Nullable
+    public PlayerSession getSession(String player) {
+        return sessions.get(player);
+    }
+
+    /**
+     * Get executor, which runs all database tasks
+     *
+     * @return database executor
+     * @since 2.2.6.7
+     */
+    public DatabaseExecutor getExecutor() {
+        return executor;
+    }
+
+    public CompletableFuture<Integer> getKeys(String name, String player) {
+        return getKeys(name, player, false);
+    }
+
+    /**
+     * Get keys of player before changing them.
+     * Unlike {@link #getKeys(String, String)} the read is never rejected because of full queue,
+     * so the change, which depends on it, is not lost
+     *
+     * @param name   Case type
+     * @param player Player name
+     * @return CompletableFuture of number of keys
+     * @since 2.2.6.7
+     */
+    public CompletableFuture<Integer> getKeysForChange(String name, String player) {
+        return getKeys(name, player, true);
+    }
+
+    private CompletableFuture<Integer> getKeys(String name, String player, boolean queue) {
+        PlayerSession session = sessions.get(player);
+        if (session != null) return CompletableFuture.completedFuture(session.getKeys(name));
+
+        WriteBehindLedger.Pending pending = ledger.getKeys(name, player);
+        if (pending != null && pending.isAbsolute()) return CompletableFuture.completedFuture(pending.getValue());
+
+        Supplier<Integer> read = () -> {
+            // stored value and pending delta must be read without a flush in between
+            synchronized (ledger) {
+                WriteBehindLedger.Pending delta = ledger.getKeys(name, player);
+                if (delta != null && delta.isAbsolute()) return delta.getValue();
+
+                int keys = queryKeys(name, player);
+                return delta != null ? delta.apply(keys) : keys;
+            }
+        };
+        return queue ? executor.queue(read) : executor.supply(read);
+    }
+
+    private int queryKeys(String name, String player) {
+        int keys = 0;
+        try {
+            keys = storage.getKeys(name, player);
+        } catch (SQLException e) {
+            instance.getLogger().warning(e.getMessage());
+        }
+        return keys;
     }
 
+    /**
+     * Set number of keys for player.
+     * The value is queued in {@link WriteBehindLedger} and written with the next batch
+     *
+     * @param name   Case type
+     * @param player Player name
+     * @param keys   Number of keys
+     */
     public void setKeys(String name, String player, int keys) {
-        Bukkit.getScheduler().runTaskAsynchronously(instance, () -> {
+        synchronized (sessionLock) {
+            PlayerSession session = sessions.get(player);
+            if (session != null) session.setKeys(name, keys);
+            ledger.setKeys(name, player, keys);
+        }
+    }
 
-            try {
-                List<PlayerKeysTable> results = playerKeysTables.queryBuilder()
-                        .where()
-                        .eq("player", player)
-                        .and()
-                        .eq("case_name", name)
-                        .query();
-                PlayerKeysTable playerKeysTable = null;
-                if (!results.isEmpty()) playerKeysTable = results.get(0);
-                if (playerKeysTable == null) {
-                    playerKeysTable = new PlayerKeysTable();
-                    playerKeysTable.setPlayer(player);
-                    playerKeysTable.setCaseType(name);
-                    playerKeysTable.setKeys(keys);
-                    playerKeysTables.create(playerKeysTable);
-                } else {
-                    UpdateBuilder<PlayerKeysTable, String> updateBuilder = playerKeysTables.updateBuilder();
-                    updateBuilder.updateColumnValue("keys", keys);
-                    updateBuilder.where().eq("player", player).and().eq("case_name", name);
-                    updateBuilder.update();
+    /**
+     * Add keys to player without reading them first.
+     * Written as {@code keys = keys + ?} with the next batch
+     *
+     * @param name   Case type
+     * @param player Player name
+     * @param keys   Number of keys to add, may be negative
+     * @since 2.2.6.7
+     */
+    public void addKeys(String name, String player, int keys) {
+        if (keys == 0) return;
+        synchronized (sessionLock) {
+            PlayerSession session = sessions.get(player);
+            if (session != null) session.addKeys(name, keys);
+            ledger.addKeys(name, player, keys);
+        }
+    }
+
+    /**
+     * Remove keys from player only if he has at least that many.
+     * Executed immediately as one conditional {@code UPDATE},
+     * or checked in memory and queued as a delta, if player session is loaded
+     *
+     * @param name   Case type
+     * @param player Player name
+     * @param keys   Number of keys to remove
+     * @return CompletableFuture of result, true if keys were removed
+     * @since 2.2.6.7
+     */
+    public CompletableFuture<Boolean> removeKeysIfEnough(String name, String player, int keys) {
+        synchronized (sessionLock) {
+            PlayerSession session = sessions.get(player);
+            if (session != null) {
+                boolean removed = session.removeKeysIfEnough(name, keys);
+                if (removed) ledger.addKeys(name, player, -keys);
+                return CompletableFuture.completedFuture(removed);
+            }
+        }
+
+        return executor.supply(() -> {
+            synchronized (ledger) {
+                WriteBehindLedger.Pending pending = ledger.takeKeys(name, player);
+                try {
+                    boolean removed = storage.removeKeysIfEnough(name, player, pending, keys);
+                    if (removed) {
+                        // session may be loaded from storage before this removal
+                        synchronized (sessionLock) {
+                            PlayerSession session = sessions.get(player);
+                            if (session != null) session.addKeys(name, -keys);
+                        }
+                    }
+                    return removed;
+                } catch (SQLException e) {
+                    if (pending != null) ledger.restoreKeys(name, player, pending);
+                    instance.getLogger().warning(e.getMessage());
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Get keys of many players at once
+     *
+     * @param name    Case type
+     * @param players Player names
+     * @return CompletableFuture of map with player name and number of keys
+     * @since 2.2.6.7
+     */
+    public CompletableFuture<Map<String, Integer>> getKeysBulk(String name, Collection<String> players) {
+        return executor.supply(() -> {
+            Map<String, Integer> result = new HashMap<>();
+            synchronized (ledger) {
+                List<String> stored = new ArrayList<>();
+                try {
+                    for (String player : players) {
+                        PlayerSession session = sessions.get(player);
+                        WriteBehindLedger.Pending pending = ledger.getKeys(name, player);
+                        if (session != null) {
+                            result.put(player, session.getKeys(name));
+                        } else if (pending != null && pending.isAbsolute()) {
+                            result.put(player, pending.getValue());
+                        } else {
+                            result.put(player, pending != null ? pending.apply(0) : 0);
+                            stored.add(player);
+                        }
+                    }
+
+                    storage.getKeys(name, stored).forEach((player, keys) -> result.merge(player, keys, Integer::sum));
+                } catch (SQLException e) {
+                    instance.getLogger().warning(e.getMessage());
                 }
-            } catch (SQLException e) {
-                instance.getLogger().warning(e.getMessage());
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Add keys to many players and write them in one transaction
+     *
+     * @param name Case type
+     * @param keys Map of player name and number of keys to add
+     * @return CompletableFuture, completed when the transaction is finished
+     * @since 2.2.6.7
+     */
+    public CompletableFuture<Void> addKeysBulk(String name, Map<String, Integer> keys) {
+        return executor.run(() -> {
+            // no flush can start between queueing and writing, so the grant is not split
+            synchronized (ledger) {
+                for (Map.Entry<String, Integer> entry : keys.entrySet()) {
+                    addKeys(name, entry.getKey(), entry.getValue());
+                }
+                ledger.flush();
             }
         });
     }
@@ -125,108 +420,157 @@ public class CaseDatabase {
      * @return number of opened cases
      */
     public CompletableFuture<Integer> getOpenCount(String player, String caseType) {
-        return CompletableFuture.supplyAsync(() -> {
-            OpenInfoTable openInfoTable = null;
-            try {
-                List<OpenInfoTable> results = openInfoTables.queryBuilder()
-                        .where()
-                        .eq("player", player)
-                        .and()
-                        .eq("case_type", caseType)
-                        .query();
-                if (!results.isEmpty()) openInfoTable = results.get(0);
-            } catch (SQLException e) {
-                instance.getLogger().warning(e.getMessage());
+        PlayerSession session = sessions.get(player);
+        if (session != null) return CompletableFuture.completedFuture(session.getCount(caseType));
+
+        WriteBehindLedger.Pending pending = ledger.getCount(caseType, player);
+        if (pending != null && pending.isAbsolute()) return CompletableFuture.completedFuture(pending.getValue());
+
+        return executor.supply(() -> {
+            synchronized (ledger) {
+                WriteBehindLedger.Pending delta = ledger.getCount(caseType, player);
+                if (delta != null && delta.isAbsolute()) return delta.getValue();
+
+                int count = queryCount(player, caseType);
+                return delta != null ? delta.apply(count) : count;
             }
-            if (openInfoTable != null) return (openInfoTable.getCount());
-            return 0;
         });
     }
 
+    private int queryCount(String player, String caseType) {
+        int count = 0;
+        try {
+            count = storage.getCount(caseType, player);
+        } catch (SQLException e) {
+            instance.getLogger().warning(e.getMessage());
+        }
+        return count;
+    }
+
     /**
-     * Set count of opened cases by player
+     * Set count of opened cases by player.
+     * The value is queued in {@link WriteBehindLedger} and written with the next batch
      *
-     * @param caseType Player, who opened
-     * @param player   Case type
+     * @param caseType Case type
+     * @param player   Player, who opened
      * @param count    Number of opened cases
      */
     public void setCount(String caseType, String player, int count) {
-        Bukkit.getScheduler().runTaskAsynchronously(instance, () -> {
-            try {
-                List<OpenInfoTable> results = openInfoTables.queryBuilder()
-                        .where()
-                        .eq("player", player)
-                        .and()
-                        .eq("case_type", caseType)
-                        .query();
-                OpenInfoTable openInfoTable = null;
-                if (!results.isEmpty()) openInfoTable = results.get(0);
-                if (openInfoTable == null) {
-                    openInfoTable = new OpenInfoTable();
-                    openInfoTable.setPlayer(player);
-                    openInfoTable.setCaseType(caseType);
-                    openInfoTable.setCount(count);
-                    openInfoTables.create(openInfoTable);
-                } else {
-                    UpdateBuilder<OpenInfoTable, String> updateBuilder = openInfoTables.updateBuilder();
-                    updateBuilder.updateColumnValue("count", count);
-                    updateBuilder.where().eq("player", player).and().eq("case_type", caseType);
-                    updateBuilder.update();
-                }
-            } catch (SQLException e) {
-                instance.getLogger().warning(e.getMessage());
-            }
-        });
+        synchronized (sessionLock) {
+            PlayerSession session = sessions.get(player);
+            if (session != null) session.setCount(caseType, count);
+            ledger.setCount(caseType, player, count);
+        }
     }
 
-    public void setHistoryData(CaseData.HistoryData[] historyData) {
-        for (int index = 0; index < historyData.length; index++) {
-            CaseData.HistoryData data = historyData[index];
-            if(data == null) continue;
+    /**
+     * Add count of opened cases without reading it first.
+     * Written as {@code count = count + ?} with the next batch
+     *
+     * @param caseType Case type
+     * @param player   Player, who opened
+     * @param count    Number of opened cases to add
+     * @since 2.2.6.7
+     */
+    public void addCount(String caseType, String player, int count) {
+        if (count == 0) return;
+        synchronized (sessionLock) {
+            PlayerSession session = sessions.get(player);
+            if (session != null) session.addCount(caseType, count);
+            ledger.addCount(caseType, player, count);
+        }
+    }
 
-            setHistoryData(data.getCaseType(), index, data);
+    /**
+     * Write coalesced keys and open counts in one transaction
+     *
+     * @param keys   Changes of keys by (player, case type)
+     * @param counts Changes of opened cases by (player, case type)
+     * @return true, if transaction committed
+     * @since 2.2.6.7
+     */
+    public boolean writeBatch(Map<InfoEntry, WriteBehindLedger.Pending> keys, Map<InfoEntry, WriteBehindLedger.Pending> counts) {
+        try {
+            storage.write(keys, counts);
+            return true;
+        } catch (SQLException e) {
+            instance.getLogger().warning(e.getMessage());
         }
+        return false;
     }
 
+    /**
+     * Save history of case openings, for example converted from Data.yml.
+     * Every not null element is appended as a new row, older first
+     *
+     * @param historyData History data
+     * @deprecated history is append-only, use {@link #addHistoryData(CaseData.HistoryData)}
+     */
+    @Deprecated
+    public void setHistoryData(CaseData.HistoryData[] historyData) {
+        Arrays.stream(historyData)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingLong(CaseData.HistoryData::getTime))
+                .forEach(this::addHistoryData);
+    }
+
+    /**
+     * Save one history slot
+     *
+     * @param caseType Case type
+     * @param index    Slot index, ignored
+     * @param data     History data
+     * @deprecated history is append-only, use {@link #addHistoryData(CaseData.HistoryData)}
+     */
+    @Deprecated
     public void setHistoryData(String caseType, int index, CaseData.HistoryData data) {
-        Bukkit.getScheduler().runTaskAsynchronously(instance, () -> {
-            try {
-                List<CaseData.HistoryData> results = historyDataTables.queryBuilder()
-                        .where()
-                        .eq("id", index)
-                        .and()
-                        .eq("case_type", caseType)
-                        .query();
-
-                CaseData.HistoryData historyDataTable = results.isEmpty() ? null : results.get(0);
-
-                if (historyDataTable == null) {
-                    data.setId(index);
-                    historyDataTables.create(data);
-                } else {
-                    UpdateBuilder<CaseData.HistoryData, String> updateBuilder = historyDataTables.updateBuilder();
-                    updateBuilder.updateColumnValue("item", data.getItem());
-                    updateBuilder.updateColumnValue("player_name", data.getPlayerName());
-                    updateBuilder.updateColumnValue("time", data.getTime());
-                    updateBuilder.updateColumnValue("group", data.getGroup());
-                    updateBuilder.updateColumnValue("action", data.getAction());
-                    updateBuilder.where().eq("id", index).and().eq("case_type", caseType);
-                    updateBuilder.update();
-                }
+        addHistoryData(data);
+    }
 
+    /**
+     * Append one case opening to history
+     *
+     * @param data History data
+     * @since 2.2.6.7
+     */
+    public void addHistoryData(CaseData.HistoryData data) {
+        executor.execute(() -> {
+            try {
+                storage.addHistory(data);
             } catch (SQLException e) {
                 instance.getLogger().warning(e.getMessage());
             }
         });
-
     }
 
+    /**
+     * Append many case openings to history in one transaction
+     *
+     * @param data History data, in order of opening
+     * @since 2.2.6.7
+     */
+    public void addHistoryData(List<CaseData.HistoryData> data) {
+        if (data.isEmpty()) return;
 
+        executor.execute(() -> {
+            try {
+                storage.addHistory(data);
+            } catch (SQLException e) {
+                instance.getLogger().warning(e.getMessage());
+            }
+        });
+    }
 
+    /**
+     * Get history of all cases, newest first.
+     * Size is limited by retention job, which keeps {@code History.Keep} rows per case type
+     *
+     * @return CompletableFuture of history data
+     */
     public CompletableFuture<List<CaseData.HistoryData>> getHistoryData() {
-        return CompletableFuture.supplyAsync(() -> {
+        return executor.supply(() -> {
             try {
-                return historyDataTables.queryForAll();
+                return storage.getHistory();
             } catch (SQLException e) {
                 instance.getLogger().warning(e.getMessage());
             }
@@ -234,14 +578,29 @@ public class CaseDatabase {
         });
     }
 
+    /**
+     * Get last {@code History.Keep} openings of case, newest first
+     *
+     * @param caseType Case type
+     * @return CompletableFuture of history data
+     */
     public CompletableFuture<List<CaseData.HistoryData>> getHistoryDataByCaseType(String caseType) {
-        return CompletableFuture.supplyAsync(() -> {
+        return getHistoryDataByCaseType(caseType, historyKeep);
+    }
+
+    /**
+     * Get last openings of case, newest first
+     *
+     * @param caseType Case type
+     * @param limit    Maximum number of openings
+     * @return CompletableFuture of history data
+     * @since 2.2.6.7
+     */
+    public CompletableFuture<List<CaseData.HistoryData>> getHistoryDataByCaseType(String caseType, int limit) {
+        return executor.supply(() -> {
             List<CaseData.HistoryData> list = new ArrayList<>();
             try {
-                list = historyDataTables.queryBuilder()
-                        .where()
-                        .eq("case_type", caseType)
-                        .query();
+                list = storage.getHistory(caseType, limit);
             } catch (SQLException e) {
                 instance.getLogger().warning(e.getMessage());
             }
@@ -249,25 +608,45 @@ public class CaseDatabase {
         });
     }
 
+    /**
+     * Delete history rows older than last {@code keep} openings of every case type
+     *
+     * @param keep  Number of openings to keep for each case type
+     * @param batch Maximum number of rows deleted by one statement
+     * @return number of deleted rows
+     * @since 2.2.6.7
+     */
+    public int pruneHistory(int keep, int batch) {
+        int deleted = 0;
+        try {
+            deleted = storage.pruneHistory(keep, batch);
+        } catch (SQLException e) {
+            instance.getLogger().warning(e.getMessage());
+        }
+        return deleted;
+    }
 
     public void delAllKeys() {
-        Bukkit.getScheduler().runTaskAsynchronously(instance, () -> {
-            try {
-                playerKeysTables.deleteBuilder().delete();
-            } catch (SQLException e) {
-                instance.getLogger().warning(e.getMessage());
+        executor.execute(() -> {
+            // no flush can write keys taken before the delete after it
+            synchronized (ledger) {
+                synchronized (sessionLock) {
+                    sessions.values().forEach(PlayerSession::clearKeys);
+                    ledger.clearKeys();
+                }
+                try {
+                    storage.deleteAllKeys();
+                } catch (SQLException e) {
+                    instance.getLogger().warning(e.getMessage());
+                }
             }
         });
     }
 
     public void close() {
-        if (connectionSource != null) {
-            try {
-                connectionSource.close();
-            } catch (Exception e) {
-                instance.getLogger().warning(e.getMessage());
-            }
-        }
+        if (retentionTask != null) retentionTask.cancel();
+        if (executor != null) executor.shutdown(10000);
+        if (ledger != null) ledger.close();
+        if (storage != null) storage.close();
     }
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package com.jodexindustries.donatecase.database;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dense index of case types, used as position in int arrays of {@link PlayerSession}.
+ * <p>
+ * Index of case type never changes, even after reload, so arrays of loaded sessions stay valid.
+ * Cases from {@link com.jodexindustries.donatecase.api.Case#caseData} are registered on load,
+ * case types found only in database get the next free index when they are met
+ * @since 2.2.6.7
+ */
+public class CaseIndex {
+    private static final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+
+    private CaseIndex() {}
+
+    /**
+     * Get index of case type, assign the next one, if case type is new
+     *
+     * @param caseType Case type
+     * @return index of case type
+     */
+    public static int indexOf(String caseType) {
+        Integer index = indexes.get(caseType);
+        if (index != null) return index;
+
+        synchronized (indexes) {
+            return indexes.computeIfAbsent(caseType, type -> indexes.size());
+        }
+    }
+
+    /**
+     * Get index of case type without assigning it
+     *
+     * @param caseType Case type
+     * @return index of case type or -1, if case type has no index yet
+     */
+    public static int find(String caseType) {
+        Integer index = indexes.get(caseType);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Get number of indexed case types
+     *
+     * @return number of case types
+     */
+    public static int size() {
+        return indexes.size();
+    }
+}
@@ -0,0 +1,176 @@
+package com.jodexindustries.donatecase.database;
+
+import com.jodexindustries.donatecase.DonateCase;
+import com.jodexindustries.donatecase.api.caching.entry.InfoEntry;
+import com.jodexindustries.donatecase.api.data.CaseData;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Storage of keys, open counts and history.
+ * <p>
+ * {@link CaseDatabase} keeps sessions, write-behind ledger and executor on top of it,
+ * so implementations only read and write stored values.
+ * All methods are blocking and called from database threads, never from the main thread.
+ * Built-in storages are registered in {@link CaseDatabase#registerStorage(String, StorageFactory)}
+ * @since 2.2.6.7
+ */
+public interface CaseStorage {
+
+    /**
+     * Open storage and prepare its schema
+     *
+     * @param section {@code DonateCase.Database} section of Config.yml
+     * @throws SQLException if storage can not be opened
+     */
+    void connect(ConfigurationSection section) throws SQLException;
+
+    /**
+     * Get number of threads, which may use storage at the same time
+     *
+     * @return number of database threads
+     */
+    int getThreads();
+
+    /**
+     * Remember UUID and current name of player, called on login
+     *
+     * @param uuid Player UUID
+     * @param name Player name
+     * @throws SQLException on storage error
+     */
+    void identify(UUID uuid, String name) throws SQLException;
+
+    /**
+     * Load all stored keys and open counts of player
+     *
+     * @param player  Player name
+     * @param session Session to fill
+     * @throws SQLException on storage error
+     */
+    void loadPlayer(String player, PlayerSession session) throws SQLException;
+
+    /**
+     * Get stored number of keys
+     *
+     * @param caseType Case type
+     * @param player   Player name
+     * @return number of keys
+     * @throws SQLException on storage error
+     */
+    int getKeys(String caseType, String player) throws SQLException;
+
+    /**
+     * Get stored number of keys of many players
+     *
+     * @param caseType Case type
+     * @param players  Player names
+     * @return map of player name and number of keys, players without keys may be absent
+     * @throws SQLException on storage error
+     */
+    Map<String, Integer> getKeys(String caseType, Collection<String> players) throws SQLException;
+
+    /**
+     * Get stored count of opened cases
+     *
+     * @param caseType Case type
+     * @param player   Player name
+     * @return number of opened cases
+     * @throws SQLException on storage error
+     */
+    int getCount(String caseType, String player) throws SQLException;
+
+    /**
+     * Write coalesced changes of keys and open counts atomically
+     *
+     * @param keys   Changes of keys by (player, case type)
+     * @param counts Changes of opened cases by (player, case type)
+     * @throws SQLException on storage error, nothing is written then
+     */
+    void write(Map<InfoEntry, WriteBehindLedger.Pending> keys, Map<InfoEntry, WriteBehindLedger.Pending> counts) throws SQLException;
+
+    /**
+     * Write pending change of keys, then remove keys only if player has at least that many
+     *
+     * @param caseType Case type
+     * @param player   Player name
+     * @param pending  Pending change of the same keys, may be null
+     * @param keys     Number of keys to remove
+     * @return true, if keys were removed
+     * @throws SQLException on storage error, nothing is written then
+     */
+    boolean removeKeysIfEnough(String caseType, String player, @Nullable WriteBehindLedger.Pending pending, int keys) throws SQLException;
+
+    /**
+     * Delete keys of all players
+     *
+     * @throws SQLException on storage error
+     */
+    void deleteAllKeys() throws SQLException;
+
+    /**
+     * Append one case opening to history
+     *
+     * @param data History data
+     * @throws SQLException on storage error
+     */
+    void addHistory(CaseData.HistoryData data) throws SQLException;
+
+    /**
+     * Append many case openings to history at once
+     *
+     * @param data History data, in order of opening
+     * @throws SQLException on storage error
+     */
+    default void addHistory(List<CaseData.HistoryData> data) throws SQLException {
+        for (CaseData.HistoryData historyData : data) {
+            addHistory(historyData);
+        }
+    }
+
+    /**
+     * Get history of all cases, newest first
+     *
+     * @return history data
+     * @throws SQLException on storage error
+     */
+    List<CaseData.HistoryData> getHistory() throws SQLException;
+
+    /**
+     * Get last openings of case, newest first
+     *
+     * @param caseType Case type
+     * @param limit    Maximum number of openings
+     * @return history data
+     * @throws SQLException on storage error
+     */
+    List<CaseData.HistoryData> getHistory(String caseType, int limit) throws SQLException;
+
+    /**
+     * Delete history older than last {@code keep} openings of every case type
+     *
+     * @param keep  Number of openings to keep for each case type
+     * @param batch Maximum number of rows deleted at once
+     * @return number of deleted openings
+     * @throws SQLException on storage error
+     */
+    int pruneHistory(int keep, int batch) throws SQLException;
+
+    /**
+     * Close storage, called after all database tasks are finished
+     */
+    void close();
+
+    /**
+     * Creates storage for plugin instance
+     */
+    interface StorageFactory {
+        CaseStorage create(DonateCase instance);
+    }
+}
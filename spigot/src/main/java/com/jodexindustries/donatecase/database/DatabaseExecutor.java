@@ -0,0 +1,323 @@
+package com.jodexindustries.donatecase.database;
+
+import com.jodexindustries.donatecase.DonateCase;
+import org.bukkit.Bukkit;
+
+import java.util.Deque;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated executor for database tasks.
+ * <p>
+ * Uses own threads and a bounded queue, so slow database never takes threads from the common pool
+ * or Bukkit async scheduler. When the queue is full, async caller waits up to {@code SubmitTimeout} milliseconds
+ * for a free slot, after that the task is rejected. Tasks from the main thread are rejected at once, so a full
+ * queue never stalls server ticks. Futures of rejected tasks are completed exceptionally,
+ * but fire-and-forget tasks from {@link #execute(Runnable)} are never dropped: they are kept in an unbounded
+ * overflow queue, which is drained by {@link #drainOverflow()} when the queue has free slots again.
+ * @since 2.2.6.7
+ */
+public class DatabaseExecutor implements Executor {
+    private final DonateCase instance;
+    private final ThreadPoolExecutor executor;
+    private final int queueSize;
+    private final long warnWait;
+
+    // set while submitting a task, which must not wait for a free slot
+    private final ThreadLocal<Boolean> noWait = ThreadLocal.withInitial(() -> false);
+    // fire-and-forget tasks, which did not fit into the queue, in order of submission
+    private final Deque<Runnable> overflow = new ConcurrentLinkedDeque<>();
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalWait = new AtomicLong();
+    private final AtomicLong maxWait = new AtomicLong();
+    private volatile long lastWarn;
+    private volatile long lastOverflowWarn;
+
+    /**
+     * Default constructor
+     *
+     * @param instance      Plugin instance
+     * @param threads       Number of database threads
+     * @param queueSize     Maximum number of waiting tasks
+     * @param submitTimeout Time in milliseconds to wait for a free slot, if the queue is full
+     * @param warnWait      Time in milliseconds, after which waiting task will be reported
+     */
+    public DatabaseExecutor(DonateCase instance, int threads, int queueSize, long submitTimeout, long warnWait) {
+        this.instance = instance;
+        this.queueSize = Math.max(1, queueSize);
+        this.warnWait = TimeUnit.MILLISECONDS.toNanos(warnWait);
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "DonateCase-Database-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        threads = Math.max(1, threads);
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(this.queueSize), factory, (runnable, pool) -> {
+            // backpressure: wait for a free slot instead of growing the queue, but never in the main thread
+            long timeout = Bukkit.isPrimaryThread() || noWait.get() ? 0 : submitTimeout;
+            try {
+                if (!pool.isShutdown() && pool.getQueue().offer(runnable, timeout, TimeUnit.MILLISECONDS)) return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Database queue is full (" + this.queueSize + " tasks)");
+        });
+    }
+
+    /**
+     * Run task in database thread.
+     * If the queue is full, task is moved to the overflow queue and will be run later, it is never dropped
+     *
+     * @param command Task
+     */
+    @Override
+    public void execute(Runnable command) {
+        // keep order: while something waits in overflow, new tasks wait behind it
+        if (overflow.isEmpty()) {
+            noWait.set(true);
+            try {
+                submit(command);
+                return;
+            } catch (RejectedExecutionException ignored) {
+            } finally {
+                noWait.set(false);
+            }
+        }
+        overflow.add(command);
+
+        long now = System.currentTimeMillis();
+        if (now - lastOverflowWarn > 30000) {
+            lastOverflowWarn = now;
+            instance.getLogger().warning("Database queue is full (" + queueSize + " tasks), "
+                    + overflow.size() + " tasks are waiting in overflow");
+        }
+    }
+
+    /**
+     * Move tasks from the overflow queue to the database queue, while it has free slots.
+     * Never waits, so it can be called from any thread
+     */
+    public void drainOverflow() {
+        synchronized (overflow) {
+            Runnable command;
+            // checked first, so waiting tasks are not counted as rejected on every attempt
+            while (executor.getQueue().remainingCapacity() > 0 && (command = overflow.poll()) != null) {
+                noWait.set(true);
+                try {
+                    submit(command);
+                } catch (RejectedExecutionException e) {
+                    overflow.addFirst(command);
+                    return;
+                } finally {
+                    noWait.set(false);
+                }
+            }
+        }
+    }
+
+    private void submit(Runnable command) {
+        long queued = System.nanoTime();
+        executor.execute(() -> {
+            record(System.nanoTime() - queued);
+            command.run();
+        });
+    }
+
+    /**
+     * Run supplier in database thread
+     *
+     * @param supplier Task
+     * @param <T>      Type of result
+     * @return CompletableFuture of result, completed exceptionally if the task was rejected
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            submit(() -> {
+                try {
+                    future.complete(supplier.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            instance.getLogger().warning(e.getMessage());
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Run supplier in database thread, like {@link #supply(Supplier)}, but never reject it:
+     * if the queue is full, it waits in overflow like tasks from {@link #execute(Runnable)}.
+     * Used by writes, which must read a value first
+     *
+     * @param supplier Task
+     * @param <T>      Type of result
+     * @return CompletableFuture of result
+     */
+    public <T> CompletableFuture<T> queue(Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        execute(() -> {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Run task in database thread
+     *
+     * @param runnable Task
+     * @return CompletableFuture, completed exceptionally if the task was rejected
+     */
+    public CompletableFuture<Void> run(Runnable runnable) {
+        return supply(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run task in database thread, but reject it at once if the queue is full, even in async thread
+     *
+     * @param runnable Task
+     * @return CompletableFuture, completed exceptionally if the task was rejected
+     */
+    public CompletableFuture<Void> tryRun(Runnable runnable) {
+        noWait.set(true);
+        try {
+            return run(runnable);
+        } finally {
+            noWait.set(false);
+        }
+    }
+
+    private void record(long wait) {
+        completed.incrementAndGet();
+        totalWait.addAndGet(wait);
+        maxWait.accumulateAndGet(wait, Math::max);
+
+        long now = System.currentTimeMillis();
+        if (wait > warnWait && now - lastWarn > 30000) {
+            lastWarn = now;
+            instance.getLogger().warning("Database task waited " + TimeUnit.NANOSECONDS.toMillis(wait)
+                    + "ms in queue (queue depth: " + getQueueSize() + "/" + queueSize + ")");
+        }
+    }
+
+    /**
+     * Get number of tasks waiting in queue
+     *
+     * @return queue depth
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Get number of fire-and-forget tasks, which did not fit into the queue and wait in overflow
+     *
+     * @return overflow size
+     */
+    public int getOverflowSize() {
+        return overflow.size();
+    }
+
+    /**
+     * Get maximum number of tasks waiting in queue
+     *
+     * @return queue capacity
+     */
+    public int getQueueCapacity() {
+        return queueSize;
+    }
+
+    /**
+     * Get number of threads executing tasks right now
+     *
+     * @return active threads
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Get number of started tasks
+     *
+     * @return started tasks
+     */
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    /**
+     * Get number of tasks rejected because of full queue
+     *
+     * @return rejected tasks
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Get average time, which tasks spent in queue
+     *
+     * @return wait time in milliseconds
+     */
+    public double getAverageWait() {
+        long count = completed.get();
+        return count == 0 ? 0 : totalWait.get() / (double) count / 1_000_000;
+    }
+
+    /**
+     * Get maximum time, which a task spent in queue
+     *
+     * @return wait time in milliseconds
+     */
+    public double getMaxWait() {
+        return maxWait.get() / 1_000_000D;
+    }
+
+    /**
+     * Stop accepting tasks, wait for queued tasks, then run tasks left in overflow in the calling thread
+     *
+     * @param timeout Time in milliseconds to wait
+     */
+    public void shutdown(long timeout) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+                instance.getLogger().warning("Database tasks did not finish in " + timeout + "ms, "
+                        + (executor.shutdownNow().size() + overflow.size()) + " tasks dropped");
+                return;
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        Runnable command;
+        while ((command = overflow.poll()) != null) {
+            try {
+                command.run();
+            } catch (RuntimeException e) {
+                instance.getLogger().warning(e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.jodexindustries.donatecase.database;
+
+import com.alessiodp.libby.Library;
+import com.j256.ormlite.jdbc.JdbcDatabaseConnection;
+import com.j256.ormlite.jdbc.JdbcPooledConnectionSource;
+import com.j256.ormlite.logger.Logger;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.jodexindustries.donatecase.DonateCase;
+import com.jodexindustries.donatecase.api.data.DatabaseType;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.sql.Driver;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.logging.Level;
+
+/**
+ * Embedded H2 database in plugin folder.
+ * <p>
+ * Runs in MySQL compatibility mode, so it shares schema and migrations with MySQL.
+ * Unlike SQLite, H2 writes from several connections in parallel.
+ * Requires Java 11 or newer, H2 driver is downloaded only when this storage is selected
+ * @since 2.2.6.7
+ */
+public class H2Storage extends OrmLiteStorage {
+    private static Driver driver;
+
+    /**
+     * Default constructor
+     *
+     * @param instance Plugin instance
+     */
+    public H2Storage(DonateCase instance) {
+        super(instance, DatabaseType.H2);
+    }
+
+    @Override
+    protected JdbcPooledConnectionSource createConnectionSource(ConfigurationSection section) throws SQLException {
+        int minConnections = section.getInt("Pool.MinConnections", 2);
+        int maxConnections = Math.max(1, section.getInt("Pool.MaxConnections", 8));
+
+        String url = "jdbc:h2:file:" + instance.getDataFolder().getAbsolutePath() + "/database-h2"
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+        // driver is loaded into plugin class loader, DriverManager called from ORMLite can not see it
+        JdbcPooledConnectionSource pooledSource = new JdbcPooledConnectionSource(url) {
+            @Override
+            protected DatabaseConnection makeConnection(Logger logger) throws SQLException {
+                DatabaseConnection connection = new JdbcDatabaseConnection(driver.connect(url, new Properties()));
+                connection.setAutoCommit(true);
+                return connection;
+            }
+        };
+        pooledSource.setMaxConnectionsFree(maxConnections);
+        setThreads(maxConnections);
+        warmUp(pooledSource, minConnections);
+        return pooledSource;
+    }
+
+    /**
+     * Download and load H2 driver
+     *
+     * @param instance Plugin instance
+     * @return true, if driver is loaded and H2 can be used
+     */
+    public static boolean loadDriver(DonateCase instance) {
+        if (driver != null) return true;
+
+        String javaVersion = System.getProperty("java.specification.version");
+        if (javaVersion.startsWith("1.")) {
+            instance.getLogger().warning("H2 storage requires Java 11 or newer, current version: " + javaVersion);
+            return false;
+        }
+
+        Library h2 = Library.builder()
+                .groupId("com{}h2database")
+                .artifactId("h2")
+                .version("2.2.224")
+                .build();
+        try {
+            instance.libraryManager.loadLibrary(h2);
+            driver = (Driver) Class.forName("org.h2.Driver").getDeclaredConstructor().newInstance();
+            return true;
+        } catch (RuntimeException | ReflectiveOperationException e) {
+            instance.getLogger().log(Level.WARNING, "Error with loading H2 driver", e);
+            return false;
+        }
+    }
+
+    @Override
+    protected boolean isMySqlDialect() {
+        return true;
+    }
+}
@@ -0,0 +1,149 @@
+package com.jodexindustries.donatecase.database;
+
+import com.jodexindustries.donatecase.api.caching.entry.InfoEntry;
+import com.jodexindustries.donatecase.api.data.CaseData;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Storage in concurrent maps, nothing is saved after restart.
+ * <p>
+ * Made for benchmarks and tests: it shows overhead of the plugin itself without database latency.
+ * Players are stored by name, so renamed players do not keep their keys
+ * @since 2.2.6.7
+ */
+public class MemoryStorage implements CaseStorage {
+    private final Map<String, Map<String, Integer>> keys = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Integer>> counts = new ConcurrentHashMap<>();
+    private final Map<String, Deque<CaseData.HistoryData>> history = new ConcurrentHashMap<>();
+    private final AtomicInteger historyIds = new AtomicInteger();
+    private int threads;
+
+    @Override
+    public void connect(ConfigurationSection section) {
+        threads = Math.max(1, section.getInt("Pool.MaxConnections", 8));
+    }
+
+    @Override
+    public int getThreads() {
+        return threads;
+    }
+
+    @Override
+    public void identify(UUID uuid, String name) {
+    }
+
+    @Override
+    public void loadPlayer(String player, PlayerSession session) {
+        keys.getOrDefault(player, Collections.emptyMap()).forEach(session::setKeys);
+        counts.getOrDefault(player, Collections.emptyMap()).forEach(session::setCount);
+    }
+
+    @Override
+    public int getKeys(String caseType, String player) {
+        return get(keys, caseType, player);
+    }
+
+    @Override
+    public Map<String, Integer> getKeys(String caseType, Collection<String> players) {
+        Map<String, Integer> result = new HashMap<>();
+        for (String player : players) {
+            result.put(player, get(keys, caseType, player));
+        }
+        return result;
+    }
+
+    @Override
+    public int getCount(String caseType, String player) {
+        return get(counts, caseType, player);
+    }
+
+    @Override
+    public synchronized void write(Map<InfoEntry, WriteBehindLedger.Pending> keys, Map<InfoEntry, WriteBehindLedger.Pending> counts) {
+        keys.forEach((entry, pending) -> apply(this.keys, entry.getCaseType(), entry.getPlayer(), pending));
+        counts.forEach((entry, pending) -> apply(this.counts, entry.getCaseType(), entry.getPlayer(), pending));
+    }
+
+    @Override
+    public synchronized boolean removeKeysIfEnough(String caseType, String player, @Nullable WriteBehindLedger.Pending pending, int keys) {
+        if (pending != null) apply(this.keys, caseType, player, pending);
+
+        int current = get(this.keys, caseType, player);
+        if (current < keys) return false;
+
+        apply(this.keys, caseType, player, new WriteBehindLedger.Pending(true, current - keys));
+        return true;
+    }
+
+    @Override
+    public synchronized void deleteAllKeys() {
+        keys.clear();
+    }
+
+    @Override
+    public void addHistory(CaseData.HistoryData data) {
+        data.setId(historyIds.incrementAndGet());
+        Deque<CaseData.HistoryData> deque = history.computeIfAbsent(data.getCaseType(), type -> new ArrayDeque<>());
+        synchronized (deque) {
+            deque.addFirst(data);
+        }
+    }
+
+    @Override
+    public List<CaseData.HistoryData> getHistory() {
+        List<CaseData.HistoryData> list = new ArrayList<>();
+        for (Deque<CaseData.HistoryData> deque : history.values()) {
+            synchronized (deque) {
+                list.addAll(deque);
+            }
+        }
+        list.sort(Comparator.comparingLong(CaseData.HistoryData::getTime).reversed());
+        return list;
+    }
+
+    @Override
+    public List<CaseData.HistoryData> getHistory(String caseType, int limit) {
+        Deque<CaseData.HistoryData> deque = history.get(caseType);
+        if (deque == null) return new ArrayList<>();
+
+        List<CaseData.HistoryData> list = new ArrayList<>();
+        synchronized (deque) {
+            for (CaseData.HistoryData data : deque) {
+                if (list.size() >= limit) break;
+                list.add(data);
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public int pruneHistory(int keep, int batch) {
+        int deleted = 0;
+        for (Deque<CaseData.HistoryData> deque : history.values()) {
+            synchronized (deque) {
+                while (deque.size() > keep) {
+                    deque.removeLast();
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static int get(Map<String, Map<String, Integer>> map, String caseType, String player) {
+        return map.getOrDefault(player, Collections.emptyMap()).getOrDefault(caseType, 0);
+    }
+
+    private static void apply(Map<String, Map<String, Integer>> map, String caseType, String player, WriteBehindLedger.Pending pending) {
+        map.computeIfAbsent(player, name -> new ConcurrentHashMap<>()).merge(caseType, pending.apply(0),
+                (stored, value) -> pending.apply(stored));
+    }
+}
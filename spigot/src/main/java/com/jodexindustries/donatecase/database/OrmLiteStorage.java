@@ -0,0 +1,443 @@
+package com.jodexindustries.donatecase.database;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.dao.DaoManager;
+import com.j256.ormlite.jdbc.JdbcPooledConnectionSource;
+import com.j256.ormlite.logger.Level;
+import com.j256.ormlite.misc.TransactionManager;
+import com.j256.ormlite.stmt.DeleteBuilder;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.jodexindustries.donatecase.DonateCase;
+import com.jodexindustries.donatecase.api.caching.entry.InfoEntry;
+import com.jodexindustries.donatecase.api.data.CaseData;
+import com.jodexindustries.donatecase.api.data.DatabaseType;
+import com.jodexindustries.donatecase.database.entities.OpenInfoTable;
+import com.jodexindustries.donatecase.database.entities.PlayerKeysTable;
+import com.jodexindustries.donatecase.database.entities.PlayerTable;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Storage in SQL database through ORMLite, SQLite or MySQL
+ * @since 2.2.6.7
+ */
+public class OrmLiteStorage implements CaseStorage {
+    protected final DonateCase instance;
+    protected final DatabaseType type;
+
+    private Dao<CaseData.HistoryData, Integer> historyDataTables;
+    private Dao<PlayerKeysTable, String> playerKeysTables;
+    private Dao<OpenInfoTable, String> openInfoTables;
+    private PlayerIds playerIds;
+    private StatementCache statements;
+    private Queries queries;
+    private JdbcPooledConnectionSource connectionSource;
+    private int threads;
+
+    /**
+     * Default constructor
+     *
+     * @param instance Plugin instance
+     * @param type     Database type, {@link DatabaseType#MYSQL} or {@link DatabaseType#SQLITE}
+     */
+    public OrmLiteStorage(DonateCase instance, DatabaseType type) {
+        this.instance = instance;
+        this.type = type;
+    }
+
+    @Override
+    public void connect(ConfigurationSection section) throws SQLException {
+        com.j256.ormlite.logger.Logger.setGlobalLogLevel(Level.WARNING);
+
+        connectionSource = createConnectionSource(section);
+
+        new SchemaMigrator(instance, connectionSource, isMySqlDialect(), type == DatabaseType.MYSQL).migrate();
+        historyDataTables = DaoManager.createDao(connectionSource, CaseData.HistoryData.class);
+        playerKeysTables = DaoManager.createDao(connectionSource, PlayerKeysTable.class);
+        openInfoTables = DaoManager.createDao(connectionSource, OpenInfoTable.class);
+        Dao<PlayerTable, Integer> playerTables = DaoManager.createDao(connectionSource, PlayerTable.class);
+        playerIds = new PlayerIds(playerTables);
+        statements = new StatementCache(connectionSource);
+        queries = new Queries();
+    }
+
+    /**
+     * Create pooled connection source and set number of threads
+     *
+     * @param section {@code DonateCase.Database} section
+     * @return connection source
+     * @throws SQLException if url is invalid
+     */
+    protected JdbcPooledConnectionSource createConnectionSource(ConfigurationSection section) throws SQLException {
+        int minConnections = section.getInt("Pool.MinConnections", 2);
+        int maxConnections = Math.max(1, section.getInt("Pool.MaxConnections", 8));
+
+        if (type == DatabaseType.MYSQL) {
+            ConfigurationSection mysqlSection = instance.config.getConfig().getConfigurationSection("DonateCase.MySql");
+            if (mysqlSection == null) throw new SQLException("DonateCase.MySql section is missing");
+
+            String database = mysqlSection.getString("DataBase");
+            String port = mysqlSection.getString("Port");
+            String host = mysqlSection.getString("Host");
+            String user = mysqlSection.getString("User");
+            String password = mysqlSection.getString("Password");
+
+            String url = "jdbc:mysql://" + host + ":" + port + "/" + database + "?autoReconnect=true";
+            JdbcPooledConnectionSource pooledSource = new JdbcPooledConnectionSource(url, user, password);
+            pooledSource.setMaxConnectionsFree(maxConnections);
+            pooledSource.setTestBeforeGet(true);
+            pooledSource.setCheckConnectionsEveryMillis(60000);
+            threads = maxConnections;
+            warmUp(pooledSource, minConnections);
+            return pooledSource;
+        }
+
+        ConfigurationSection sqliteSection = section.getConfigurationSection("SQLite");
+        if (sqliteSection == null) sqliteSection = section.createSection("SQLite");
+
+        // without WAL readers wait for writer, so more threads would only wait for each other
+        threads = sqliteSection.getBoolean("Performance", true)
+                ? Math.max(1, sqliteSection.getInt("Connections", 4)) : 1;
+        String url = "jdbc:sqlite:" + instance.getDataFolder().getAbsolutePath() + "/database.db";
+        SQLiteConnectionSource pooledSource = new SQLiteConnectionSource(url, sqliteSection);
+        pooledSource.setMaxConnectionsFree(threads);
+        return pooledSource;
+    }
+
+    /**
+     * Is database SQL close enough to MySQL for migrations ({@code AUTO_INCREMENT}, {@code INSERT IGNORE})
+     *
+     * @return true, if MySQL statements are used
+     */
+    protected boolean isMySqlDialect() {
+        return type == DatabaseType.MYSQL;
+    }
+
+    protected void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    @Override
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Open connections in advance, so first queries do not wait for handshake
+     *
+     * @param connectionSource Connection source
+     * @param connections      Number of connections to open
+     */
+    protected static void warmUp(JdbcPooledConnectionSource connectionSource, int connections) throws SQLException {
+        List<DatabaseConnection> opened = new ArrayList<>();
+        try {
+            for (int i = 0; i < connections; i++) {
+                opened.add(connectionSource.getReadWriteConnection(null));
+            }
+        } finally {
+            for (DatabaseConnection connection : opened) {
+                connectionSource.releaseConnection(connection);
+            }
+        }
+    }
+
+    /**
+     * Find player id by UUID and remember his current name.
+     * If keys were given to this name before the first login, they are moved to the player
+     */
+    @Override
+    public void identify(UUID uuid, String name) throws SQLException {
+        int id = TransactionManager.callInTransaction(connectionSource, () -> {
+            PlayerTable row = playerIds.findByUuid(uuid);
+            PlayerTable unclaimed = playerIds.findUnclaimed(name);
+            if (row == null) {
+                row = unclaimed != null ? unclaimed : new PlayerTable();
+                unclaimed = null;
+            }
+
+            // renamed player, old name may be taken by somebody else now
+            if (row.getName() != null && !row.getName().equals(name)) playerIds.invalidate(row.getName());
+
+            row.setUuid(uuid.toString());
+            row.setName(name);
+            row.setLastSeen(System.currentTimeMillis());
+            playerIds.save(row);
+
+            if (unclaimed != null) {
+                mergePlayer(unclaimed.getId(), row.getId());
+                playerIds.delete(unclaimed);
+            }
+            return row.getId();
+        });
+        playerIds.put(name, id);
+    }
+
+    /**
+     * Add keys and open counts of one player id to another and delete the old rows
+     */
+    private void mergePlayer(int from, int to) throws SQLException {
+        for (PlayerKeysTable keys : playerKeysTables.queryForEq("player_id", from)) {
+            writeKeys(keys.getCaseType(), to, new WriteBehindLedger.Pending(false, keys.getKeys()));
+        }
+        for (OpenInfoTable count : openInfoTables.queryForEq("player_id", from)) {
+            writeCount(count.getCaseType(), to, new WriteBehindLedger.Pending(false, count.getCount()));
+        }
+
+        DeleteBuilder<PlayerKeysTable, String> keysDelete = playerKeysTables.deleteBuilder();
+        keysDelete.where().eq("player_id", from);
+        keysDelete.delete();
+        DeleteBuilder<OpenInfoTable, String> countDelete = openInfoTables.deleteBuilder();
+        countDelete.where().eq("player_id", from);
+        countDelete.delete();
+    }
+
+    @Override
+    public void loadPlayer(String player, PlayerSession session) throws SQLException {
+        int id = playerIds.find(player);
+        if (id == -1) return;
+
+        statements.query(queries.selectSession, row -> {
+            if (row.getString(1).equals("k")) {
+                session.setKeys(row.getString(2), row.getInt(3));
+            } else {
+                session.setCount(row.getString(2), row.getInt(3));
+            }
+        }, id, id);
+    }
+
+    @Override
+    public int getKeys(String caseType, String player) throws SQLException {
+        int id = playerIds.find(player);
+        if (id == -1) return 0;
+
+        return statements.queryForInt(queries.selectKeys, id, caseType);
+    }
+
+    @Override
+    public Map<String, Integer> getKeys(String caseType, Collection<String> players) throws SQLException {
+        Map<Integer, String> names = new HashMap<>();
+        for (String player : players) {
+            int id = playerIds.find(player);
+            if (id != -1) names.put(id, player);
+        }
+
+        Map<String, Integer> result = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(names.keySet());
+        for (int i = 0; i < ids.size(); i += 500) {
+            for (PlayerKeysTable row : playerKeysTables.queryBuilder()
+                    .where()
+                    .eq("case_name", caseType)
+                    .and()
+                    .in("player_id", ids.subList(i, Math.min(ids.size(), i + 500)))
+                    .query()) {
+                result.put(names.get(row.getPlayerId()), row.getKeys());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int getCount(String caseType, String player) throws SQLException {
+        int id = playerIds.find(player);
+        if (id == -1) return 0;
+
+        return statements.queryForInt(queries.selectCount, id, caseType);
+    }
+
+    @Override
+    public void write(Map<InfoEntry, WriteBehindLedger.Pending> keys, Map<InfoEntry, WriteBehindLedger.Pending> counts) throws SQLException {
+        // ids are registered before the transaction, so a rollback never leaves cached ids without rows
+        Set<String> players = new HashSet<>();
+        for (InfoEntry entry : keys.keySet()) players.add(entry.getPlayer());
+        for (InfoEntry entry : counts.keySet()) players.add(entry.getPlayer());
+        Map<String, Integer> ids = playerIds.getOrCreateAll(players);
+
+        TransactionManager.callInTransaction(connectionSource, () -> {
+            writeAll(keys, ids, queries.setKeys, queries.addKeys, queries.insertKeys);
+            writeAll(counts, ids, queries.setCount, queries.addCount, queries.insertCount);
+            return null;
+        });
+    }
+
+    /**
+     * Write changes with batched updates, then insert rows which did not exist
+     */
+    private void writeAll(Map<InfoEntry, WriteBehindLedger.Pending> changes, Map<String, Integer> ids,
+                          String set, String add, String insert) throws SQLException {
+        List<InfoEntry> absolute = new ArrayList<>();
+        List<InfoEntry> delta = new ArrayList<>();
+        for (Map.Entry<InfoEntry, WriteBehindLedger.Pending> entry : changes.entrySet()) {
+            (entry.getValue().isAbsolute() ? absolute : delta).add(entry.getKey());
+        }
+
+        List<Object[]> inserts = new ArrayList<>();
+        for (List<InfoEntry> entries : Arrays.asList(absolute, delta)) {
+            List<Object[]> rows = new ArrayList<>();
+            for (InfoEntry entry : entries) {
+                rows.add(new Object[]{changes.get(entry).getValue(), ids.get(entry.getPlayer()), entry.getCaseType()});
+            }
+
+            int[] updated = statements.batch(entries == absolute ? set : add, rows);
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] != 0) continue;
+                InfoEntry entry = entries.get(i);
+                inserts.add(new Object[]{ids.get(entry.getPlayer()), entry.getCaseType(), changes.get(entry).apply(0)});
+            }
+        }
+        statements.batch(insert, inserts);
+    }
+
+    private void writeKeys(String name, int playerId, WriteBehindLedger.Pending pending) throws SQLException {
+        String update = pending.isAbsolute() ? queries.setKeys : queries.addKeys;
+        if (statements.update(update, pending.getValue(), playerId, name) > 0) return;
+
+        statements.update(queries.insertKeys, playerId, name, pending.apply(0));
+    }
+
+    private void writeCount(String caseType, int playerId, WriteBehindLedger.Pending pending) throws SQLException {
+        String update = pending.isAbsolute() ? queries.setCount : queries.addCount;
+        if (statements.update(update, pending.getValue(), playerId, caseType) > 0) return;
+
+        statements.update(queries.insertCount, playerId, caseType, pending.apply(0));
+    }
+
+    @Override
+    public boolean removeKeysIfEnough(String caseType, String player, @Nullable WriteBehindLedger.Pending pending, int keys) throws SQLException {
+        int id = pending != null ? playerIds.getOrCreate(player) : playerIds.find(player);
+        if (id == -1) return false;
+
+        return TransactionManager.callInTransaction(connectionSource, () -> {
+            if (pending != null) writeKeys(caseType, id, pending);
+
+            return statements.update(queries.removeKeys, keys, id, caseType, keys) > 0;
+        });
+    }
+
+    @Override
+    public void deleteAllKeys() throws SQLException {
+        playerKeysTables.deleteBuilder().delete();
+    }
+
+    @Override
+    public void addHistory(CaseData.HistoryData data) throws SQLException {
+        long id = statements.insert(queries.insertHistory, data.getCaseType(), data.getItem(),
+                data.getPlayerName(), data.getTime(), data.getGroup(), data.getAction());
+        if (id != -1) data.setId((int) id);
+    }
+
+    @Override
+    public void addHistory(List<CaseData.HistoryData> data) throws SQLException {
+        TransactionManager.callInTransaction(connectionSource, () -> {
+            for (CaseData.HistoryData historyData : data) {
+                addHistory(historyData);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public List<CaseData.HistoryData> getHistory() throws SQLException {
+        return historyDataTables.queryBuilder()
+                .orderBy("time", false)
+                .query();
+    }
+
+    @Override
+    public List<CaseData.HistoryData> getHistory(String caseType, int limit) throws SQLException {
+        return historyDataTables.queryBuilder()
+                .orderBy("time", false)
+                .orderBy("id", false)
+                .limit((long) limit)
+                .where()
+                .eq("case_type", caseType)
+                .query();
+    }
+
+    /**
+     * Rows are deleted by batches, so the table is not locked for a long time
+     */
+    @Override
+    public int pruneHistory(int keep, int batch) throws SQLException {
+        int deleted = 0;
+        List<String[]> caseTypes = historyDataTables.queryRaw("SELECT DISTINCT case_type FROM history_data").getResults();
+        for (String[] row : caseTypes) {
+            String caseType = row[0];
+
+            CaseData.HistoryData oldest = historyDataTables.queryBuilder()
+                    .orderBy("time", false)
+                    .orderBy("id", false)
+                    .offset((long) keep - 1)
+                    .limit(1L)
+                    .where()
+                    .eq("case_type", caseType)
+                    .queryForFirst();
+            if (oldest == null) continue;
+
+            while (true) {
+                List<Integer> ids = new ArrayList<>();
+                for (CaseData.HistoryData data : historyDataTables.queryBuilder()
+                        .selectColumns("id")
+                        .limit((long) batch)
+                        .where()
+                        .eq("case_type", caseType)
+                        .and()
+                        .lt("time", oldest.getTime())
+                        .query()) {
+                    ids.add(data.getId());
+                }
+                if (ids.isEmpty()) break;
+
+                deleted += historyDataTables.deleteIds(ids);
+                if (ids.size() < batch) break;
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public void close() {
+        if (statements != null) statements.close();
+        if (connectionSource != null) {
+            try {
+                connectionSource.close();
+            } catch (Exception e) {
+                instance.getLogger().warning(e.getMessage());
+            }
+        }
+    }
+
+    private String escape(String name) {
+        StringBuilder builder = new StringBuilder();
+        connectionSource.getDatabaseType().appendEscapedEntityName(builder, name);
+        return builder.toString();
+    }
+
+    /**
+     * Hot statements, built once with escaping of current database
+     */
+    private class Queries {
+        private final String selectSession = "SELECT 'k', case_name, " + escape("keys")
+                + " FROM player_keys WHERE player_id = ? UNION ALL SELECT 'o', case_type, " + escape("count")
+                + " FROM open_info WHERE player_id = ?";
+
+        private final String selectKeys = "SELECT " + escape("keys") + " FROM player_keys WHERE player_id = ? AND case_name = ?";
+        private final String setKeys = "UPDATE player_keys SET " + escape("keys") + " = ? WHERE player_id = ? AND case_name = ?";
+        private final String addKeys = "UPDATE player_keys SET " + escape("keys") + " = " + escape("keys")
+                + " + ? WHERE player_id = ? AND case_name = ?";
+        private final String removeKeys = "UPDATE player_keys SET " + escape("keys") + " = " + escape("keys")
+                + " - ? WHERE player_id = ? AND case_name = ? AND " + escape("keys") + " >= ?";
+        private final String insertKeys = "INSERT INTO player_keys (player_id, case_name, " + escape("keys") + ") VALUES (?, ?, ?)";
+
+        private final String selectCount = "SELECT " + escape("count") + " FROM open_info WHERE player_id = ? AND case_type = ?";
+        private final String setCount = "UPDATE open_info SET " + escape("count") + " = ? WHERE player_id = ? AND case_type = ?";
+        private final String addCount = "UPDATE open_info SET " + escape("count") + " = " + escape("count")
+                + " + ? WHERE player_id = ? AND case_type = ?";
+        private final String insertCount = "INSERT INTO open_info (player_id, case_type, " + escape("count") + ") VALUES (?, ?, ?)";
+
+        private final String insertHistory = "INSERT INTO history_data (case_type, item, player_name, " + escape("time") + ", "
+                + escape("group") + ", " + escape("action") + ") VALUES (?, ?, ?, ?, ?, ?)";
+    }
+}
@@ -0,0 +1,213 @@
+package com.jodexindustries.donatecase.database;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.misc.TransactionManager;
+import com.jodexindustries.donatecase.api.caching.ConcurrentCache;
+import com.jodexindustries.donatecase.database.entities.PlayerTable;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Maps player names to compact integer ids from {@code players} table.
+ * <p>
+ * Resolved ids are kept in memory, so a name is looked up in database only once while it is used.
+ * At most {@link ConcurrentCache#DEFAULT_MAXIMUM_SIZE} names are kept, least recently used are forgotten first.
+ * A name may belong to different accounts over time, the most recently seen one wins.
+ * @since 2.2.6.7
+ */
+public class PlayerIds {
+    private static final int LOOKUP_CHUNK = 500;
+
+    private final Map<String, Integer> ids = Collections.synchronizedMap(
+            new LinkedHashMap<String, Integer>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                    return size() > ConcurrentCache.DEFAULT_MAXIMUM_SIZE;
+                }
+            });
+    private final Dao<PlayerTable, Integer> players;
+
+    /**
+     * Default constructor
+     *
+     * @param players Players table DAO
+     */
+    public PlayerIds(Dao<PlayerTable, Integer> players) {
+        this.players = players;
+    }
+
+    /**
+     * Find id of player
+     *
+     * @param name Player name
+     * @return player id or -1, if player is unknown
+     * @throws SQLException on database error
+     */
+    public int find(String name) throws SQLException {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+
+        PlayerTable row = findByName(name);
+        if (row == null) return -1;
+
+        ids.put(name, row.getId());
+        return row.getId();
+    }
+
+    /**
+     * Find id of player or register a new one without UUID,
+     * for example when keys are given to a player who never joined.
+     * UUID will be attached on his first login
+     *
+     * @param name Player name
+     * @return player id
+     * @throws SQLException on database error
+     */
+    public int getOrCreate(String name) throws SQLException {
+        int id = find(name);
+        if (id != -1) return id;
+
+        synchronized (this) {
+            id = find(name);
+            if (id != -1) return id;
+
+            PlayerTable row = new PlayerTable();
+            row.setName(name);
+            players.create(row);
+            ids.put(name, row.getId());
+            return row.getId();
+        }
+    }
+
+    /**
+     * Find ids of many players at once and register unknown ones in one transaction
+     *
+     * @param names Player names
+     * @return map of player name and id
+     * @throws SQLException on database error
+     */
+    public Map<String, Integer> getOrCreateAll(Collection<String> names) throws SQLException {
+        Map<String, Integer> result = new HashMap<>();
+        List<String> unknown = new ArrayList<>();
+        for (String name : names) {
+            Integer id = ids.get(name);
+            if (id != null) {
+                result.put(name, id);
+            } else {
+                unknown.add(name);
+            }
+        }
+        if (unknown.isEmpty()) return result;
+
+        synchronized (this) {
+            for (int i = 0; i < unknown.size(); i += LOOKUP_CHUNK) {
+                List<String> chunk = unknown.subList(i, Math.min(unknown.size(), i + LOOKUP_CHUNK));
+                // oldest first, so the most recently seen row wins for renamed names
+                for (PlayerTable row : players.queryBuilder().orderBy("last_seen", true).where().in("name", chunk).query()) {
+                    result.put(row.getName(), row.getId());
+                }
+            }
+
+            List<String> missing = new ArrayList<>();
+            for (String name : unknown) {
+                if (!result.containsKey(name)) missing.add(name);
+            }
+
+            Map<String, Integer> created = TransactionManager.callInTransaction(players.getConnectionSource(), () -> {
+                Map<String, Integer> map = new HashMap<>();
+                for (String name : missing) {
+                    PlayerTable row = new PlayerTable();
+                    row.setName(name);
+                    players.create(row);
+                    map.put(name, row.getId());
+                }
+                return map;
+            });
+            result.putAll(created);
+
+            // cached only after commit, so a rollback never leaves ids without rows
+            for (String name : unknown) ids.put(name, result.get(name));
+        }
+        return result;
+    }
+
+    /**
+     * Get player row by UUID
+     *
+     * @param uuid Player UUID
+     * @return row or null
+     * @throws SQLException on database error
+     */
+    @Nullable
+    public PlayerTable findByUuid(UUID uuid) throws SQLException {
+        return players.queryBuilder().where().eq("uuid", uuid.toString()).queryForFirst();
+    }
+
+    /**
+     * Get registered row of player, who has not joined yet
+     *
+     * @param name Player name
+     * @return row or null
+     * @throws SQLException on database error
+     */
+    @Nullable
+    public PlayerTable findUnclaimed(String name) throws SQLException {
+        return players.queryBuilder().where().eq("name", name).and().isNull("uuid").queryForFirst();
+    }
+
+    @Nullable
+    private PlayerTable findByName(String name) throws SQLException {
+        return players.queryBuilder()
+                .orderBy("last_seen", false)
+                .limit(1L)
+                .where()
+                .eq("name", name)
+                .queryForFirst();
+    }
+
+    /**
+     * Create or update player row
+     *
+     * @param row Player row
+     * @throws SQLException on database error
+     */
+    public void save(PlayerTable row) throws SQLException {
+        if (row.getId() == 0) {
+            players.create(row);
+        } else {
+            players.update(row);
+        }
+    }
+
+    /**
+     * Delete player row
+     *
+     * @param row Player row
+     * @throws SQLException on database error
+     */
+    public void delete(PlayerTable row) throws SQLException {
+        players.delete(row);
+        ids.remove(row.getName(), row.getId());
+    }
+
+    /**
+     * Remember id of name
+     *
+     * @param name Player name
+     * @param id   Player id
+     */
+    public void put(String name, int id) {
+        ids.put(name, id);
+    }
+
+    /**
+     * Forget id of name, for example after player was renamed
+     *
+     * @param name Player name
+     */
+    public void invalidate(String name) {
+        ids.remove(name);
+    }
+}
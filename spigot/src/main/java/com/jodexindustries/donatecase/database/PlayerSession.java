@@ -0,0 +1,105 @@
+package com.jodexindustries.donatecase.database;
+
+import java.util.Arrays;
+
+/**
+ * Keys and open counts of online player, loaded once on login.
+ * <p>
+ * Values are changed together with {@link WriteBehindLedger}, so the session always shows
+ * database value plus changes which are not flushed yet.
+ * Values are stored in int arrays by {@link CaseIndex}, so reading them allocates nothing
+ * @since 2.2.6.7
+ */
+public class PlayerSession {
+    private final String player;
+    private int[] keys;
+    private int[] counts;
+
+    /**
+     * Default constructor
+     *
+     * @param player Player name
+     */
+    public PlayerSession(String player) {
+        this.player = player;
+        int size = Math.max(1, CaseIndex.size());
+        this.keys = new int[size];
+        this.counts = new int[size];
+    }
+
+    /**
+     * Get player name
+     *
+     * @return player name
+     */
+    public String getPlayer() {
+        return player;
+    }
+
+    public synchronized int getKeys(String caseType) {
+        return get(keys, CaseIndex.find(caseType));
+    }
+
+    public synchronized void setKeys(String caseType, int value) {
+        int index = CaseIndex.indexOf(caseType);
+        ensureCapacity(index);
+        keys[index] = value;
+    }
+
+    public synchronized void addKeys(String caseType, int delta) {
+        int index = CaseIndex.indexOf(caseType);
+        ensureCapacity(index);
+        keys[index] += delta;
+    }
+
+    /**
+     * Remove keys only if player has enough of them
+     *
+     * @param caseType Case type
+     * @param amount   Number of keys to remove
+     * @return true, if keys were removed
+     */
+    public synchronized boolean removeKeysIfEnough(String caseType, int amount) {
+        int index = CaseIndex.indexOf(caseType);
+        ensureCapacity(index);
+        if (keys[index] < amount) return false;
+
+        keys[index] -= amount;
+        return true;
+    }
+
+    /**
+     * Drop all keys
+     */
+    public synchronized void clearKeys() {
+        Arrays.fill(keys, 0);
+    }
+
+    public synchronized int getCount(String caseType) {
+        return get(counts, CaseIndex.find(caseType));
+    }
+
+    public synchronized void setCount(String caseType, int value) {
+        int index = CaseIndex.indexOf(caseType);
+        ensureCapacity(index);
+        counts[index] = value;
+    }
+
+    public synchronized void addCount(String caseType, int delta) {
+        int index = CaseIndex.indexOf(caseType);
+        ensureCapacity(index);
+        counts[index] += delta;
+    }
+
+    private static int get(int[] values, int index) {
+        return index >= 0 && index < values.length ? values[index] : 0;
+    }
+
+    private void ensureCapacity(int index) {
+        if (index < keys.length) return;
+
+        int size = Math.max(index + 1, keys.length * 2);
+        keys = Arrays.copyOf(keys, size);
+        counts = Arrays.copyOf(counts, size);
+    }
+}
@@ -0,0 +1,73 @@
+package com.jodexindustries.donatecase.database;
+
+import com.j256.ormlite.jdbc.JdbcDatabaseConnection;
+import com.j256.ormlite.jdbc.JdbcPooledConnectionSource;
+import com.j256.ormlite.logger.Logger;
+import com.j256.ormlite.support.DatabaseConnection;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Pooled SQLite connections, configured for concurrent access.
+ * <p>
+ * If {@code Performance} is enabled, every new connection gets pragmas from {@code DonateCase.Database.SQLite} section.
+ * With WAL journal readers do not wait for writer, so database threads work in parallel,
+ * and {@code BusyTimeout} lets writers wait for each other instead of failing.
+ * <p>
+ * Transactions are opened with {@code BEGIN IMMEDIATE}: they read and then write, and a deferred
+ * transaction can not upgrade its read snapshot to a write lock once another connection has committed
+ * ({@code SQLITE_BUSY_SNAPSHOT}). Taking the write lock up front makes them wait on {@code busy_timeout} instead.
+ * @since 2.2.6.7
+ */
+public class SQLiteConnectionSource extends JdbcPooledConnectionSource {
+    private final List<String> pragmas = new ArrayList<>();
+
+    /**
+     * Default constructor
+     *
+     * @param url     JDBC url
+     * @param section SQLite settings
+     * @throws SQLException if url is invalid
+     */
+    public SQLiteConnectionSource(String url, ConfigurationSection section) throws SQLException {
+        super(url);
+        if (!section.getBoolean("Performance", true)) return;
+
+        pragmas.add("PRAGMA busy_timeout = " + section.getInt("BusyTimeout", 5000));
+        pragmas.add("PRAGMA journal_mode = " + keyword(section.getString("JournalMode"), "WAL"));
+        pragmas.add("PRAGMA synchronous = " + keyword(section.getString("Synchronous"), "NORMAL"));
+        pragmas.add("PRAGMA cache_size = " + section.getInt("CacheSize", -8000));
+        pragmas.add("PRAGMA mmap_size = " + section.getLong("MmapSize", 134217728L));
+        pragmas.add("PRAGMA temp_store = MEMORY");
+    }
+
+    @Override
+    protected DatabaseConnection makeConnection(Logger logger) throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("transaction_mode", "IMMEDIATE");
+        DatabaseConnection connection = new JdbcDatabaseConnection(DriverManager.getConnection(getUrl(), properties));
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.getUnderlyingConnection().createStatement()) {
+            for (String pragma : pragmas) {
+                statement.execute(pragma);
+            }
+        } catch (SQLException e) {
+            connection.closeQuietly();
+            throw e;
+        }
+        return connection;
+    }
+
+    /**
+     * Pragma values are put into SQL as is, so only plain words are accepted
+     */
+    private static String keyword(String value, String def) {
+        return value != null && value.matches("[A-Za-z]+") ? value : def;
+    }
+}
@@ -0,0 +1,306 @@
+package com.jodexindustries.donatecase.database;
+
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.jodexindustries.donatecase.DonateCase;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies versioned schema changes to the database.
+ * <p>
+ * Current version is stored in {@code schema_version} table,
+ * every migration above it is applied in order and recorded there.
+ * <p>
+ * DDL is not transactional on MySQL and H2, so migrations do not rely on rollback.
+ * Every table rebuild is recorded in {@code schema_steps} as soon as it is done,
+ * and a rebuild interrupted half way is finished or restarted on next start from
+ * the {@code *_new} and {@code *_old} tables it left behind.
+ * @since 2.2.6.7
+ */
+public class SchemaMigrator {
+    private static final String VERSION_TABLE = "schema_version";
+    private static final String STEPS_TABLE = "schema_steps";
+
+    private final DonateCase instance;
+    private final ConnectionSource connectionSource;
+    private final boolean mysql;
+    private final boolean atomicRename;
+    private final List<Migration> migrations = new ArrayList<>();
+
+    /**
+     * Default constructor
+     *
+     * @param instance         Plugin instance
+     * @param connectionSource Connection source
+     * @param mysql            Are MySQL statements used (otherwise SQLite)
+     * @param atomicRename     Does database support {@code RENAME TABLE a TO b, c TO d} as one statement
+     */
+    public SchemaMigrator(DonateCase instance, ConnectionSource connectionSource, boolean mysql, boolean atomicRename) {
+        this.instance = instance;
+        this.connectionSource = connectionSource;
+        this.mysql = mysql;
+        this.atomicRename = atomicRename;
+
+        migrations.add(new Migration(1, "primary keys for player_keys, open_info and history_data", this::addPrimaryKeys));
+        migrations.add(new Migration(2, "append-only history_data", this::appendOnlyHistory));
+        migrations.add(new Migration(3, "players table and integer player ids", this::playerIds));
+    }
+
+    /**
+     * Apply all migrations above current schema version
+     *
+     * @return schema version after migration
+     * @throws SQLException if a migration failed, schema stays at the last applied version
+     */
+    public int migrate() throws SQLException {
+        DatabaseConnection connection = connectionSource.getReadWriteConnection(null);
+        try {
+            execute(connection, "CREATE TABLE IF NOT EXISTS " + VERSION_TABLE
+                    + " (version INTEGER NOT NULL PRIMARY KEY, applied BIGINT NOT NULL)");
+            execute(connection, "CREATE TABLE IF NOT EXISTS " + STEPS_TABLE
+                    + " (step VARCHAR(191) NOT NULL PRIMARY KEY, applied BIGINT NOT NULL)");
+            int current = (int) connection.queryForLong("SELECT MAX(version) FROM " + VERSION_TABLE);
+            if (current == 0) createBaseline(connection);
+
+            for (Migration migration : migrations) {
+                if (migration.version <= current) continue;
+
+                instance.getLogger().info("Migrating database to version " + migration.version + ": " + migration.description);
+                try {
+                    migration.step.apply(connection, migration.version);
+                } catch (SQLException e) {
+                    throw new SQLException("Migration to version " + migration.version + " failed, "
+                            + "finished steps are kept and it will be continued on next start", e);
+                }
+                execute(connection, "INSERT INTO " + VERSION_TABLE + " (version, applied) VALUES ("
+                        + migration.version + ", " + System.currentTimeMillis() + ")");
+                current = migration.version;
+            }
+            return current;
+        } finally {
+            connectionSource.releaseConnection(connection);
+        }
+    }
+
+    /**
+     * Version 0: tables as they were created by ORMLite before migrations,
+     * so a new database goes through the same steps as an old one
+     */
+    private void createBaseline(DatabaseConnection connection) throws SQLException {
+        execute(connection, "CREATE TABLE IF NOT EXISTS player_keys (player VARCHAR(255) NOT NULL, "
+                + "case_name VARCHAR(255) NOT NULL, " + escape("keys") + " INTEGER NOT NULL DEFAULT 0)");
+        execute(connection, "CREATE TABLE IF NOT EXISTS open_info (player VARCHAR(255) NOT NULL, "
+                + "case_type VARCHAR(255), " + escape("count") + " INTEGER DEFAULT 0)");
+        execute(connection, "CREATE TABLE IF NOT EXISTS history_data (case_type VARCHAR(255), id INTEGER, "
+                + "item VARCHAR(255), player_name VARCHAR(255), " + escape("time") + " BIGINT, "
+                + escape("group") + " VARCHAR(255), " + escape("action") + " VARCHAR(255))");
+    }
+
+    /**
+     * Version 1: tables created by ORMLite had no keys at all, so duplicates are merged
+     * and every table gets a composite primary key
+     */
+    private void addPrimaryKeys(DatabaseConnection connection, int version) throws SQLException {
+        rebuild(connection, version, "player_keys",
+                "player VARCHAR(64) NOT NULL, case_name VARCHAR(191) NOT NULL, "
+                        + escape("keys") + " INTEGER NOT NULL DEFAULT 0, PRIMARY KEY (player, case_name)",
+                "player, case_name, " + escape("keys"),
+                "SELECT player, case_name, MAX(" + escape("keys") + ") FROM player_keys"
+                        + " WHERE player IS NOT NULL AND case_name IS NOT NULL GROUP BY player, case_name");
+
+        rebuild(connection, version, "open_info",
+                "player VARCHAR(64) NOT NULL, case_type VARCHAR(191) NOT NULL, "
+                        + escape("count") + " INTEGER NOT NULL DEFAULT 0, PRIMARY KEY (player, case_type)",
+                "player, case_type, " + escape("count"),
+                "SELECT player, case_type, MAX(" + escape("count") + ") FROM open_info"
+                        + " WHERE player IS NOT NULL AND case_type IS NOT NULL GROUP BY player, case_type");
+
+        String historyColumns = "case_type, id, item, player_name, " + escape("time") + ", "
+                + escape("group") + ", " + escape("action");
+        rebuild(connection, version, "history_data",
+                "case_type VARCHAR(191) NOT NULL, id INTEGER NOT NULL, item VARCHAR(255), player_name VARCHAR(64), "
+                        + escape("time") + " BIGINT NOT NULL DEFAULT 0, " + escape("group") + " VARCHAR(255), "
+                        + escape("action") + " VARCHAR(255), PRIMARY KEY (case_type, id)",
+                historyColumns,
+                // newest row wins, if a slot was duplicated
+                "SELECT " + historyColumns + " FROM history_data WHERE case_type IS NOT NULL ORDER BY "
+                        + escape("time") + " DESC");
+    }
+
+    /**
+     * Version 2: history is no longer stored in ten slots per case,
+     * every opening gets its own auto increment row and "last N" is read by time index
+     */
+    private void appendOnlyHistory(DatabaseConnection connection, int version) throws SQLException {
+        String columns = "case_type, item, player_name, " + escape("time") + ", "
+                + escape("group") + ", " + escape("action");
+        // indexes are created on the new table before it replaces the old one, so they are never half done
+        rebuild(connection, version, "history_data",
+                "id INTEGER NOT NULL PRIMARY KEY " + (mysql ? "AUTO_INCREMENT" : "AUTOINCREMENT") + ", "
+                        + "case_type VARCHAR(191) NOT NULL, item VARCHAR(255), player_name VARCHAR(64), "
+                        + escape("time") + " BIGINT NOT NULL DEFAULT 0, " + escape("group") + " VARCHAR(255), "
+                        + escape("action") + " VARCHAR(255)",
+                columns,
+                // oldest first, so ids follow time
+                "SELECT " + columns + " FROM history_data ORDER BY " + escape("time"),
+                "CREATE INDEX idx_history_case_time ON history_data_new (case_type, " + escape("time") + ")",
+                "CREATE INDEX idx_history_time ON history_data_new (" + escape("time") + ")");
+    }
+
+    /**
+     * Version 3: every known name gets a row in {@code players}, keys and open counts
+     * are keyed by its integer id. UUID is attached on first login of the player.
+     * History keeps {@code player_name}, because it shows the name at the moment of opening
+     */
+    private void playerIds(DatabaseConnection connection, int version) throws SQLException {
+        // built like a rebuild of a table, which did not exist, so it is either complete or absent
+        rebuild(connection, version, "players",
+                "id INTEGER NOT NULL PRIMARY KEY " + (mysql ? "AUTO_INCREMENT" : "AUTOINCREMENT")
+                        + ", uuid VARCHAR(36), name VARCHAR(64) NOT NULL, last_seen BIGINT NOT NULL DEFAULT 0",
+                "name",
+                "SELECT names.player FROM (SELECT player FROM player_keys UNION SELECT player FROM open_info) names",
+                "CREATE UNIQUE INDEX idx_players_uuid ON players_new (uuid)",
+                "CREATE INDEX idx_players_name ON players_new (name)");
+
+        rebuild(connection, version, "player_keys",
+                "player_id INTEGER NOT NULL, case_name VARCHAR(191) NOT NULL, "
+                        + escape("keys") + " INTEGER NOT NULL DEFAULT 0, PRIMARY KEY (player_id, case_name)",
+                "player_id, case_name, " + escape("keys"),
+                "SELECT p.id, k.case_name, k." + escape("keys") + " FROM player_keys k JOIN players p ON p.name = k.player");
+
+        rebuild(connection, version, "open_info",
+                "player_id INTEGER NOT NULL, case_type VARCHAR(191) NOT NULL, "
+                        + escape("count") + " INTEGER NOT NULL DEFAULT 0, PRIMARY KEY (player_id, case_type)",
+                "player_id, case_type, " + escape("count"),
+                "SELECT p.id, o.case_type, o." + escape("count") + " FROM open_info o JOIN players p ON p.name = o.player");
+    }
+
+    /**
+     * Recreate table with new definition and copy rows into it, or create it, if it did not exist.
+     * Rows which violate new keys are skipped.
+     * <p>
+     * Rows are copied into {@code table_new}, which then replaces the table, and the old table stays
+     * as {@code table_old} until the step is recorded. A rebuild interrupted on any statement
+     * is finished or started over on next call
+     *
+     * @param version Migration version, which the step belongs to
+     * @param table   Table name
+     * @param columns Column definitions of new table
+     * @param insert  Columns to fill
+     * @param select  Query for rows to copy
+     * @param indexes Statements creating indexes on {@code table_new}
+     */
+    private void rebuild(DatabaseConnection connection, int version, String table, String columns, String insert,
+                         String select, String... indexes) throws SQLException {
+        String step = version + ":" + table;
+        String newTable = table + "_new";
+        String oldTable = table + "_old";
+
+        if (isStepApplied(connection, step)) {
+            // recorded, but interrupted before the old table was dropped
+            execute(connection, "DROP TABLE IF EXISTS " + oldTable);
+            return;
+        }
+
+        boolean exists = tableExists(connection, table);
+        boolean hasNew = tableExists(connection, newTable);
+        boolean hasOld = tableExists(connection, oldTable);
+
+        if (!exists && hasOld && !hasNew) {
+            // new table was lost after the old one was moved away, start over from the old one
+            execute(connection, "ALTER TABLE " + oldTable + " RENAME TO " + table);
+            exists = true;
+            hasOld = false;
+        }
+
+        if (exists && hasOld && !hasNew) {
+            instance.getLogger().info("Finishing interrupted rebuild of " + table);
+        } else if (!exists && hasOld) {
+            // interrupted between two renames, new table is complete
+            instance.getLogger().info("Finishing interrupted rebuild of " + table);
+            execute(connection, "ALTER TABLE " + newTable + " RENAME TO " + table);
+        } else {
+            // not started or interrupted while copying: rows are copied again from the table, which is still in place
+            execute(connection, "DROP TABLE IF EXISTS " + newTable);
+            execute(connection, "CREATE TABLE " + newTable + " (" + columns + ")");
+            for (String index : indexes) {
+                execute(connection, index);
+            }
+            execute(connection, (mysql ? "INSERT IGNORE INTO " : "INSERT OR IGNORE INTO ") + newTable
+                    + " (" + insert + ") " + select);
+            if (exists) {
+                swap(connection, table, newTable, oldTable);
+            } else {
+                execute(connection, "ALTER TABLE " + newTable + " RENAME TO " + table);
+            }
+        }
+
+        recordStep(connection, step);
+        execute(connection, "DROP TABLE IF EXISTS " + oldTable);
+    }
+
+    /**
+     * Put new table in place of the old one, with one statement, if database can do it
+     */
+    private void swap(DatabaseConnection connection, String table, String newTable, String oldTable) throws SQLException {
+        if (atomicRename) {
+            execute(connection, "RENAME TABLE " + table + " TO " + oldTable + ", " + newTable + " TO " + table);
+        } else {
+            execute(connection, "ALTER TABLE " + table + " RENAME TO " + oldTable);
+            execute(connection, "ALTER TABLE " + newTable + " RENAME TO " + table);
+        }
+    }
+
+    private boolean isStepApplied(DatabaseConnection connection, String step) throws SQLException {
+        return connection.queryForLong("SELECT COUNT(*) FROM " + STEPS_TABLE + " WHERE step = '" + step + "'") > 0;
+    }
+
+    private void recordStep(DatabaseConnection connection, String step) throws SQLException {
+        execute(connection, "INSERT INTO " + STEPS_TABLE + " (step, applied) VALUES ('" + step + "', "
+                + System.currentTimeMillis() + ")");
+    }
+
+    /**
+     * Check table in current database, names are compared ignoring case
+     */
+    private static boolean tableExists(DatabaseConnection connection, String table) throws SQLException {
+        Connection jdbc = connection.getUnderlyingConnection();
+        try (ResultSet tables = jdbc.getMetaData().getTables(jdbc.getCatalog(), null, "%", new String[]{"TABLE"})) {
+            while (tables.next()) {
+                if (table.equalsIgnoreCase(tables.getString("TABLE_NAME"))) return true;
+            }
+        }
+        return false;
+    }
+
+    private String escape(String name) {
+        StringBuilder builder = new StringBuilder();
+        connectionSource.getDatabaseType().appendEscapedEntityName(builder, name);
+        return builder.toString();
+    }
+
+    private static void execute(DatabaseConnection connection, String statement) throws SQLException {
+        connection.executeStatement(statement, DatabaseConnection.DEFAULT_RESULT_FLAGS);
+    }
+
+    private interface Step {
+        void apply(DatabaseConnection connection, int version) throws SQLException;
+    }
+
+    private static class Migration {
+        private final int version;
+        private final String description;
+        private final Step step;
+
+        private Migration(int version, String description, Step step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+}
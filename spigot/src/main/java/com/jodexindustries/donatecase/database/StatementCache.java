@@ -0,0 +1,192 @@
+package com.jodexindustries.donatecase.database;
+
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prepared statements for hot queries, reused for every connection of the pool.
+ * <p>
+ * Statements are compiled once per connection and kept until the connection is closed.
+ * Connection is taken from {@link ConnectionSource}, so inside of a transaction
+ * statements run on the transaction connection.
+ * @since 2.2.6.7
+ */
+public class StatementCache {
+    private final Map<Connection, Map<String, PreparedStatement>> statements = new ConcurrentHashMap<>();
+    private final ConnectionSource connectionSource;
+
+    /**
+     * Default constructor
+     *
+     * @param connectionSource Connection source
+     */
+    public StatementCache(ConnectionSource connectionSource) {
+        this.connectionSource = connectionSource;
+    }
+
+    /**
+     * Execute update statement
+     *
+     * @param sql  SQL with {@code ?} placeholders
+     * @param args Arguments
+     * @return number of changed rows
+     * @throws SQLException on database error
+     */
+    public int update(String sql, Object... args) throws SQLException {
+        return execute(sql, args, PreparedStatement::executeUpdate);
+    }
+
+    /**
+     * Execute update statement for every row of arguments in one batch
+     *
+     * @param sql  SQL with {@code ?} placeholders
+     * @param rows Arguments of every statement
+     * @return number of changed rows by every statement
+     * @throws SQLException on database error
+     */
+    public int[] batch(String sql, List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) return new int[0];
+
+        return execute(sql, new Object[0], statement -> {
+            try {
+                for (Object[] args : rows) {
+                    for (int i = 0; i < args.length; i++) {
+                        statement.setObject(i + 1, args[i]);
+                    }
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            } finally {
+                statement.clearBatch();
+            }
+        });
+    }
+
+    /**
+     * Execute insert statement
+     *
+     * @param sql  SQL with {@code ?} placeholders
+     * @param args Arguments
+     * @return generated key or -1, if database returned no key
+     * @throws SQLException on database error
+     */
+    public long insert(String sql, Object... args) throws SQLException {
+        return execute(sql, args, statement -> {
+            statement.executeUpdate();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                return keys.next() ? keys.getLong(1) : -1L;
+            }
+        });
+    }
+
+    /**
+     * Execute query, which returns one int value
+     *
+     * @param sql  SQL with {@code ?} placeholders
+     * @param args Arguments
+     * @return value of the first column of the first row or 0, if there are no rows
+     * @throws SQLException on database error
+     */
+    public int queryForInt(String sql, Object... args) throws SQLException {
+        return execute(sql, args, statement -> {
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() ? result.getInt(1) : 0;
+            }
+        });
+    }
+
+    /**
+     * Execute query and pass every row to consumer
+     *
+     * @param sql  SQL with {@code ?} placeholders
+     * @param rows Row consumer
+     * @param args Arguments
+     * @throws SQLException on database error
+     */
+    public void query(String sql, RowConsumer rows, Object... args) throws SQLException {
+        execute(sql, args, statement -> {
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) rows.accept(result);
+            }
+            return null;
+        });
+    }
+
+    private <T> T execute(String sql, Object[] args, Call<T> call) throws SQLException {
+        DatabaseConnection connection = connectionSource.getReadWriteConnection(null);
+        try {
+            PreparedStatement statement = prepare(connection.getUnderlyingConnection(), sql);
+            try {
+                for (int i = 0; i < args.length; i++) {
+                    statement.setObject(i + 1, args[i]);
+                }
+                return call.apply(statement);
+            } finally {
+                statement.clearParameters();
+            }
+        } finally {
+            connectionSource.releaseConnection(connection);
+        }
+    }
+
+    private PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        Map<String, PreparedStatement> cache = statements.get(connection);
+        if (cache == null) {
+            // new connection in pool, forget statements of closed ones
+            statements.entrySet().removeIf(entry -> isClosed(entry.getKey()));
+            cache = statements.computeIfAbsent(connection, c -> new ConcurrentHashMap<>());
+        }
+
+        PreparedStatement statement = cache.get(sql);
+        if (statement == null || statement.isClosed()) {
+            statement = sql.startsWith("INSERT")
+                    ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                    : connection.prepareStatement(sql);
+            cache.put(sql, statement);
+        }
+        return statement;
+    }
+
+    private static boolean isClosed(Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Close all cached statements
+     */
+    public void close() {
+        for (Map<String, PreparedStatement> cache : statements.values()) {
+            for (PreparedStatement statement : cache.values()) {
+                try {
+                    statement.close();
+                } catch (SQLException ignored) {
+                }
+            }
+        }
+        statements.clear();
+    }
+
+    /**
+     * Consumer of query rows
+     */
+    public interface RowConsumer {
+        void accept(ResultSet row) throws SQLException;
+    }
+
+    private interface Call<T> {
+        T apply(PreparedStatement statement) throws SQLException;
+    }
+}
@@ -0,0 +1,299 @@
+package com.jodexindustries.donatecase.database;
+
+import com.jodexindustries.donatecase.DonateCase;
+import com.jodexindustries.donatecase.api.caching.entry.InfoEntry;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Write-behind ledger for keys and open counts.
+ * <p>
+ * Mutations of the same (player, case) pair are coalesced in memory
+ * and written to the database in one batched transaction,
+ * every {@code FlushInterval} ticks or when {@code MaxPending} entries are waiting.
+ * Pending values stay readable until the batch is committed.
+ * @since 2.2.6.7
+ */
+public class WriteBehindLedger {
+    private final Map<InfoEntry, Pending> pendingKeys = new ConcurrentHashMap<>();
+    private final Map<InfoEntry, Pending> pendingCounts = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final DonateCase instance;
+    private final CaseDatabase database;
+    private final long flushInterval;
+    private final int maxPending;
+
+    private BukkitTask task;
+
+    /**
+     * Default constructor
+     *
+     * @param instance      Plugin instance
+     * @param database      Database to flush into
+     * @param flushInterval Flush interval in ticks
+     * @param maxPending    Number of pending entries which triggers an early flush
+     */
+    public WriteBehindLedger(DonateCase instance, CaseDatabase database, long flushInterval, int maxPending) {
+        this.instance = instance;
+        this.database = database;
+        this.flushInterval = Math.max(1, flushInterval);
+        this.maxPending = Math.max(1, maxPending);
+    }
+
+    /**
+     * Start periodic flushing. The same timer drains tasks waiting in the executor overflow
+     */
+    public void start() {
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(instance, () -> {
+            database.getExecutor().drainOverflow();
+            requestFlush();
+        }, flushInterval, flushInterval);
+    }
+
+    /**
+     * Queue absolute number of keys
+     *
+     * @param caseType Case type
+     * @param player   Player name
+     * @param keys     Number of keys
+     */
+    public void setKeys(String caseType, String player, int keys) {
+        pendingKeys.put(new InfoEntry(player, caseType), new Pending(true, keys));
+        checkPending();
+    }
+
+    /**
+     * Queue change of keys
+     *
+     * @param caseType Case type
+     * @param player   Player name
+     * @param delta    Number of keys to add, may be negative
+     */
+    public void addKeys(String caseType, String player, int delta) {
+        pendingKeys.merge(new InfoEntry(player, caseType), new Pending(false, delta), Pending::merge);
+        checkPending();
+    }
+
+    /**
+     * Queue absolute number of opened cases
+     *
+     * @param caseType Case type
+     * @param player   Player name
+     * @param count    Number of opened cases
+     */
+    public void setCount(String caseType, String player, int count) {
+        pendingCounts.put(new InfoEntry(player, caseType), new Pending(true, count));
+        checkPending();
+    }
+
+    /**
+     * Queue change of opened cases
+     *
+     * @param caseType Case type
+     * @param player   Player name
+     * @param delta    Number of opened cases to add
+     */
+    public void addCount(String caseType, String player, int delta) {
+        pendingCounts.merge(new InfoEntry(player, caseType), new Pending(false, delta), Pending::merge);
+        checkPending();
+    }
+
+    /**
+     * Get pending keys change, which is not flushed yet
+     *
+     * @param caseType Case type
+     * @param player   Player name
+     * @return pending change or null, if nothing pending
+     */
+    @Nullable
+    public Pending getKeys(String caseType, String player) {
+        return pendingKeys.get(new InfoEntry(player, caseType));
+    }
+
+    /**
+     * Get pending open count change, which is not flushed yet
+     *
+     * @param caseType Case type
+     * @param player   Player name
+     * @return pending change or null, if nothing pending
+     */
+    @Nullable
+    public Pending getCount(String caseType, String player) {
+        return pendingCounts.get(new InfoEntry(player, caseType));
+    }
+
+    /**
+     * Iterate over pending changes of one player
+     *
+     * @param player Player name
+     * @param keys   Consumer of case type and pending keys change
+     * @param counts Consumer of case type and pending open count change
+     */
+    public void forEachPending(String player, BiConsumer<String, Pending> keys, BiConsumer<String, Pending> counts) {
+        pendingKeys.forEach((entry, pending) -> {
+            if (player.equals(entry.getPlayer())) keys.accept(entry.getCaseType(), pending);
+        });
+        pendingCounts.forEach((entry, pending) -> {
+            if (player.equals(entry.getPlayer())) counts.accept(entry.getCaseType(), pending);
+        });
+    }
+
+    /**
+     * Remove pending keys change of one pair, so it can be written directly.
+     * Should be called while holding the ledger lock
+     *
+     * @param caseType Case type
+     * @param player   Player name
+     * @return removed change or null
+     */
+    @Nullable
+    Pending takeKeys(String caseType, String player) {
+        return pendingKeys.remove(new InfoEntry(player, caseType));
+    }
+
+    /**
+     * Put back keys change taken by {@link #takeKeys(String, String)}, if it could not be written
+     *
+     * @param caseType Case type
+     * @param player   Player name
+     * @param pending  Taken change
+     */
+    void restoreKeys(String caseType, String player, Pending pending) {
+        pendingKeys.merge(new InfoEntry(player, caseType), pending, (current, restored) -> Pending.merge(restored, current));
+    }
+
+    /**
+     * Drop all pending keys
+     */
+    public void clearKeys() {
+        pendingKeys.clear();
+    }
+
+    /**
+     * Get number of pending entries
+     *
+     * @return pending entries
+     */
+    public int size() {
+        return pendingKeys.size() + pendingCounts.size();
+    }
+
+    /**
+     * Write all pending entries in one transaction.
+     * Entries stay pending if the transaction fails and will be retried on next flush
+     */
+    public void flush() {
+        flushScheduled.set(false);
+        flush(entry -> true);
+    }
+
+    /**
+     * Write pending entries of one player, for example when he leaves the server
+     *
+     * @param player Player name
+     */
+    public void flush(String player) {
+        flush(entry -> player.equals(entry.getPlayer()));
+    }
+
+    private synchronized void flush(Predicate<InfoEntry> filter) {
+        if (pendingKeys.isEmpty() && pendingCounts.isEmpty()) return;
+
+        Map<InfoEntry, Pending> keys = snapshot(pendingKeys, filter);
+        Map<InfoEntry, Pending> counts = snapshot(pendingCounts, filter);
+        if (keys.isEmpty() && counts.isEmpty()) return;
+
+        if (!database.writeBatch(keys, counts)) return;
+
+        // keep changes which were queued while flushing
+        keys.forEach((entry, flushed) -> pendingKeys.computeIfPresent(entry, (key, current) -> current.without(flushed)));
+        counts.forEach((entry, flushed) -> pendingCounts.computeIfPresent(entry, (key, current) -> current.without(flushed)));
+    }
+
+    private static Map<InfoEntry, Pending> snapshot(Map<InfoEntry, Pending> pending, Predicate<InfoEntry> filter) {
+        Map<InfoEntry, Pending> snapshot = new HashMap<>();
+        pending.forEach((entry, value) -> {
+            if (filter.test(entry)) snapshot.put(entry, value);
+        });
+        return snapshot;
+    }
+
+    /**
+     * Stop periodic flushing and write everything left
+     */
+    public void close() {
+        if (task != null) task.cancel();
+        flush();
+    }
+
+    private void checkPending() {
+        if (size() >= maxPending) requestFlush();
+    }
+
+    /**
+     * Schedule flush in database executor, if it is not scheduled yet
+     */
+    private void requestFlush() {
+        if (pendingKeys.isEmpty() && pendingCounts.isEmpty()) return;
+        if (!flushScheduled.compareAndSet(false, true)) return;
+        database.getExecutor().tryRun(this::flush).whenComplete((result, throwable) -> {
+            // will be retried by timer
+            if (throwable instanceof RejectedExecutionException) flushScheduled.set(false);
+        });
+    }
+
+    /**
+     * Pending change of one (player, case) pair.
+     * Either an absolute value or a delta to the stored one
+     */
+    public static class Pending {
+        private final boolean absolute;
+        private final int value;
+
+        public Pending(boolean absolute, int value) {
+            this.absolute = absolute;
+            this.value = value;
+        }
+
+        public boolean isAbsolute() {
+            return absolute;
+        }
+
+        public int getValue() {
+            return value;
+        }
+
+        /**
+         * Apply this change to the stored value
+         *
+         * @param stored Value from database
+         * @return value after change
+         */
+        public int apply(int stored) {
+            return absolute ? value : stored + value;
+        }
+
+        @Nullable
+        private Pending without(Pending flushed) {
+            if (this == flushed) return null;
+            if (absolute) return this;
+            int left = value - flushed.value;
+            return left == 0 ? null : new Pending(false, left);
+        }
+
+        private static Pending merge(Pending previous, Pending next) {
+            if (next.absolute) return next;
+            return new Pending(previous.absolute, previous.value + next.value);
+        }
+    }
+}
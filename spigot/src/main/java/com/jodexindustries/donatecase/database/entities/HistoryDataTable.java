@@ -8,7 +8,7 @@ import com.j256.ormlite.table.DatabaseTable;
 public class HistoryDataTable {
     @DatabaseField(columnName = "case_type")
     private String caseType;
-    @DatabaseField(columnName = "id")
+    @DatabaseField(columnName = "id", generatedId = true)
     private int id;
     @DatabaseField(columnName = "item")
     private String item;
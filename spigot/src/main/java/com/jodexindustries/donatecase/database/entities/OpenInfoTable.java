@@ -5,19 +5,19 @@ import com.j256.ormlite.table.DatabaseTable;
 
 @DatabaseTable(tableName = "open_info")
 public class OpenInfoTable {
-    @DatabaseField(canBeNull = false)
-    private String player;
+    @DatabaseField(canBeNull = false, columnName = "player_id")
+    private int playerId;
     @DatabaseField(columnName = "case_type")
     private String caseType;
     @DatabaseField(defaultValue = "0")
     private int count;
 
-    public String getPlayer() {
-        return player;
+    public int getPlayerId() {
+        return playerId;
     }
 
-    public void setPlayer(String player) {
-        this.player = player;
+    public void setPlayerId(int playerId) {
+        this.playerId = playerId;
     }
 
     public String getCaseType() {
@@ -39,7 +39,7 @@ public class OpenInfoTable {
     @Override
     public String toString() {
         return "OpenInfoTable{" +
-                "player='" + player + '\'' +
+                "playerId=" + playerId +
                 ", caseType='" + caseType + '\'' +
                 ", count=" + count +
                 '}';
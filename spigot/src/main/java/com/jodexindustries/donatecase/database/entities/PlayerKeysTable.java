@@ -5,19 +5,19 @@ import com.j256.ormlite.table.DatabaseTable;
 
 @DatabaseTable(tableName = "player_keys")
 public class PlayerKeysTable {
-    @DatabaseField(canBeNull = false)
-    private String player;
+    @DatabaseField(canBeNull = false, columnName = "player_id")
+    private int playerId;
     @DatabaseField(canBeNull = false, columnName = "case_name")
     private String caseType;
     @DatabaseField(canBeNull = false, defaultValue = "0")
     private int keys;
 
-    public String getPlayer() {
-        return player;
+    public int getPlayerId() {
+        return playerId;
     }
 
-    public void setPlayer(String player) {
-        this.player = player;
+    public void setPlayerId(int playerId) {
+        this.playerId = playerId;
     }
 
     public String getCaseType() {
@@ -0,0 +1,54 @@
+package com.jodexindustries.donatecase.database.entities;
+
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+@DatabaseTable(tableName = "players")
+public class PlayerTable {
+    @DatabaseField(generatedId = true)
+    private int id;
+    @DatabaseField(width = 36)
+    private String uuid;
+    @DatabaseField(canBeNull = false, width = 64)
+    private String name;
+    @DatabaseField(columnName = "last_seen", defaultValue = "0")
+    private long lastSeen;
+
+    public int getId() {
+        return id;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public void setUuid(String uuid) {
+        this.uuid = uuid;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getLastSeen() {
+        return lastSeen;
+    }
+
+    public void setLastSeen(long lastSeen) {
+        this.lastSeen = lastSeen;
+    }
+
+    @Override
+    public String toString() {
+        return "PlayerTable{" +
+                "id=" + id +
+                ", uuid='" + uuid + '\'' +
+                ", name='" + name + '\'' +
+                ", lastSeen=" + lastSeen +
+                '}';
+    }
+}
@@ -50,7 +50,8 @@ public class CaseGui {
     }
 
     /**
-     * Loads all items asynchronously
+     * Loads all items asynchronously.
+     * If history is not loaded yet, items are shown with empty history and loaded again, when it is ready
      *
      * @return Void future
      */
@@ -58,7 +59,8 @@ public class CaseGui {
         CompletableFuture<Void> future = new CompletableFuture<>();
 
         Bukkit.getScheduler().runTaskAsynchronously(Case.getInstance(), () -> {
-            globalHistoryData = Case.getSortedHistoryDataCache();
+            List<CaseData.HistoryData> history = Case.getSortedHistoryDataCacheIfLoaded();
+            globalHistoryData = history != null ? history : Collections.emptyList();
             for (GUI.Item item : tempGUI.getItems().values()) {
                 try {
                     processItem(item);
@@ -68,6 +70,14 @@ public class CaseGui {
                 }
             }
             future.complete(null);
+
+            if (history == null) {
+                Case.getSortedHistoryDataCacheAsync().thenAccept(loaded -> {
+                    // GUI is not registered yet, if history was loaded right after opening
+                    CaseGui current = Case.playersGui.get(player.getUniqueId());
+                    if (loaded != null && (current == null || current == this)) load();
+                });
+            }
         });
         return future;
     }
@@ -147,8 +157,9 @@ public class CaseGui {
                 }
             }
 
+            Integer keys = Case.getKeysCacheIfLoaded(caseType, p.getName());
             line = line.replace("%" + placeholder + "%",
-                    String.valueOf(Case.getKeysCache(caseType, p.getName())));
+                    keys == null ? Case.getCacheLoadingPlaceholder() : String.valueOf(keys));
         }
 
         return line;
@@ -9,12 +9,24 @@ import com.jodexindustries.donatecase.api.events.CaseGuiClickEvent;
 import com.jodexindustries.donatecase.api.events.OpenCaseEvent;
 import com.jodexindustries.donatecase.api.events.PreOpenCaseEvent;
 import com.jodexindustries.donatecase.gui.CaseGui;
+import com.jodexindustries.donatecase.tools.Tools;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class OPENItemClickHandlerImpl implements TypedItemClickHandler {
+    /**
+     * Players, whose keys are being checked or reserved, so repeated clicks do not start another open
+     */
+    private static final Set<UUID> pending = ConcurrentHashMap.newKeySet();
 
     public static void register(GUITypedItemManager manager) {
         OPENItemClickHandlerImpl handler = new OPENItemClickHandlerImpl();
@@ -47,8 +59,13 @@ public class OPENItemClickHandlerImpl implements TypedItemClickHandler {
         }
 
 
+        int multiOpen = Case.getConfig().getConfig().getInt("DonateCase.MultiOpen.ShiftClick", 10);
         if (caseData != null) {
-            executeOpen(caseData, p, location);
+            if (e.isShiftClick() && multiOpen > 1) {
+                executeMultiOpen(caseData, p, location, multiOpen);
+            } else {
+                executeOpen(caseData, p, location);
+            }
         } else {
             Case.getInstance().getLogger().warning("CaseData " + caseType + " not found. ");
         }
@@ -56,23 +73,174 @@ public class OPENItemClickHandlerImpl implements TypedItemClickHandler {
         p.closeInventory();
     }
 
+    /**
+     * Open case with animation without blocking the main thread.
+     * {@link PreOpenCaseEvent} is called in the main thread, then one key is reserved in the database thread,
+     * then {@link OpenCaseEvent} is called and animation is started back in the main thread.
+     * Reserved key is returned, if player left, event was cancelled or animation was not started (for example, block is busy)
+     *
+     * @param caseData Case data
+     * @param player   Player, who opens
+     * @param location Case block location
+     */
     public static void executeOpen(@NotNull CaseData caseData, @NotNull Player player, @NotNull Location location) {
         PreOpenCaseEvent event = new PreOpenCaseEvent(player, caseData, location.getBlock());
         Bukkit.getServer().getPluginManager().callEvent(event);
-        if (!event.isCancelled()) {
+        if (event.isCancelled()) return;
 
-            if (Case.getKeys(caseData.getCaseType(), player.getName()) >= 1 || event.isIgnoreKeys()) {
+        if (event.isIgnoreKeys()) {
+            startOpen(caseData, player, location, false);
+            return;
+        }
 
-                OpenCaseEvent openEvent = new OpenCaseEvent(player, caseData, location.getBlock());
-                Bukkit.getServer().getPluginManager().callEvent(openEvent);
+        if (!pending.add(player.getUniqueId())) return;
 
-                if (!openEvent.isCancelled()) {
-                    if(Case.getInstance().api.getAnimationManager().startAnimation(player, location, caseData))
-                        if(!event.isIgnoreKeys()) Case.removeKeys(caseData.getCaseType(), player.getName(), 1);
-                }
-            } else {
-                Case.executeActions(player, caseData.getNoKeyActions());
+        Case.removeKeysIfEnough(caseData.getCaseType(), player.getName(), 1).whenComplete((removed, throwable) -> {
+            try {
+                Bukkit.getScheduler().runTask(Case.getInstance(), () -> {
+                    pending.remove(player.getUniqueId());
+                    if (throwable != null) {
+                        Case.getInstance().getLogger().warning(throwable.getMessage());
+                        sendOpenError(player, caseData);
+                        return;
+                    }
+
+                    if (!removed) {
+                        if (player.isOnline()) Case.executeCompiledActions(player, caseData.getCompiledNoKeyActions(), null);
+                        return;
+                    }
+
+                    startOpen(caseData, player, location, true);
+                });
+            } catch (RuntimeException e) {
+                // plugin is disabling, the task will never run
+                pending.remove(player.getUniqueId());
+                if (throwable == null && removed) Case.addKeys(caseData.getCaseType(), player.getName(), 1);
             }
+        });
+    }
+
+    private static void startOpen(CaseData caseData, Player player, Location location, boolean reserved) {
+        if (player.isOnline() && !Case.activeCasesByBlock.containsKey(location.getBlock())) {
+            OpenCaseEvent openEvent = new OpenCaseEvent(player, caseData, location.getBlock());
+            Bukkit.getServer().getPluginManager().callEvent(openEvent);
+
+            if (!openEvent.isCancelled()
+                    && Case.getInstance().api.getAnimationManager().startAnimation(player, location, caseData)) return;
+        }
+
+        if (reserved) Case.addKeys(caseData.getCaseType(), player.getName(), 1);
+    }
+
+    /**
+     * Open amount of cases at once without animation, like {@code /dc opencase (case) (amount)}:
+     * either all keys are reserved with one conditional update and all cases are opened, or nothing is opened.
+     * {@link PreOpenCaseEvent} and {@link OpenCaseEvent} are called in the main thread, like in {@link #executeOpen(CaseData, Player, Location)},
+     * and reserved keys are returned, if player left or event was cancelled
+     *
+     * @param caseData Case data
+     * @param player   Player, who opens
+     * @param location Case block location
+     * @param amount   Number of cases
+     * @since 2.2.6.7
+     */
+    public static void executeMultiOpen(@NotNull CaseData caseData, @NotNull Player player, @NotNull Location location, int amount) {
+        PreOpenCaseEvent event = new PreOpenCaseEvent(player, caseData, location.getBlock());
+        Bukkit.getServer().getPluginManager().callEvent(event);
+        if (event.isCancelled()) return;
+
+        if (event.isIgnoreKeys()) {
+            startMultiOpen(caseData, player, location, amount, false);
+            return;
+        }
+
+        if (!pending.add(player.getUniqueId())) return;
+
+        Case.removeKeysIfEnough(caseData.getCaseType(), player.getName(), amount).whenComplete((removed, throwable) -> {
+            try {
+                Bukkit.getScheduler().runTask(Case.getInstance(), () -> {
+                    pending.remove(player.getUniqueId());
+                    if (throwable != null) {
+                        Case.getInstance().getLogger().warning(throwable.getMessage());
+                        sendOpenError(player, caseData);
+                        return;
+                    }
+
+                    if (!removed) {
+                        if (player.isOnline()) Case.executeCompiledActions(player, caseData.getCompiledNoKeyActions(), null);
+                        return;
+                    }
+
+                    startMultiOpen(caseData, player, location, amount, true);
+                });
+            } catch (RuntimeException e) {
+                // plugin is disabling, the task will never run
+                pending.remove(player.getUniqueId());
+                if (throwable == null && removed) Case.addKeys(caseData.getCaseType(), player.getName(), amount);
+            }
+        });
+    }
+
+    private static void startMultiOpen(CaseData caseData, Player player, Location location, int amount, boolean reserved) {
+        if (player.isOnline()) {
+            OpenCaseEvent openEvent = new OpenCaseEvent(player, caseData, location.getBlock());
+            Bukkit.getServer().getPluginManager().callEvent(openEvent);
+
+            if (!openEvent.isCancelled()) {
+                // keys are already reserved or ignored
+                Case.openCases(caseData, player, location, amount, true).whenComplete((items, throwable) -> {
+                    if (throwable != null) {
+                        Case.getInstance().getLogger().warning(throwable.getMessage());
+                        sendOpenError(player, caseData);
+                    } else if (!items.isEmpty()) {
+                        sendSummary(player, caseData, items);
+                    }
+                });
+                return;
+            }
+        }
+
+        if (reserved) Case.addKeys(caseData.getCaseType(), player.getName(), amount);
+    }
+
+    /**
+     * Tell player, that the case could not be opened because of a database error
+     *
+     * @param player   Player, who opens
+     * @param caseData Case data
+     * @since 2.2.6.7
+     */
+    public static void sendOpenError(@NotNull Player player, @NotNull CaseData caseData) {
+        if (!player.isOnline()) return;
+        Tools.msg(player, Tools.rt(Case.getConfig().getLang().getString("open-error",
+                        "&cCould not open case &6%casetitle&c, try again later"),
+                "%casetitle:" + caseData.getCaseTitle(), "%casedisplayname:" + caseData.getCaseDisplayName(),
+                "%case:" + caseData.getCaseType()));
+    }
+
+    /**
+     * Send summary of opened cases: one line for every won item with its amount
+     *
+     * @param player   Player, who opened
+     * @param caseData Case data
+     * @param items    Won items
+     * @since 2.2.6.7
+     */
+    public static void sendSummary(@NotNull Player player, @NotNull CaseData caseData, @NotNull List<CaseData.Item> items) {
+        Map<CaseData.Item, Integer> counts = new LinkedHashMap<>();
+        for (CaseData.Item item : items) counts.merge(item, 1, Integer::sum);
+
+        Tools.msg(player, Tools.rt(Case.getConfig().getLang().getString("multi-open-result",
+                        "&eOpened &c%count &ecases &6%casetitle&e:"),
+                "%count:" + items.size(), "%casetitle:" + caseData.getCaseTitle(),
+                "%casedisplayname:" + caseData.getCaseDisplayName(), "%case:" + caseData.getCaseType()));
+
+        String format = Case.getConfig().getLang().getString("multi-open-item", "&7- %item &7x&c%amount");
+        for (Map.Entry<CaseData.Item, Integer> entry : counts.entrySet()) {
+            CaseData.Item item = entry.getKey();
+            Tools.msgRaw(player, Tools.rt(format,
+                    "%itemname:" + item.getItemName(), "%group:" + item.getGroup(), "%amount:" + entry.getValue(),
+                    "%item:" + Case.getInstance().papi.setPlaceholders(player, item.getMaterial().getDisplayName())));
         }
     }
 }
@@ -6,6 +6,7 @@ import com.jodexindustries.donatecase.api.data.CaseData;
 import com.jodexindustries.donatecase.api.data.gui.GUITypedItem;
 import com.jodexindustries.donatecase.api.data.gui.TypedItemClickHandler;
 import com.jodexindustries.donatecase.api.events.*;
+import com.jodexindustries.donatecase.database.PlayerSession;
 import com.jodexindustries.donatecase.gui.CaseGui;
 import com.jodexindustries.donatecase.gui.items.OPENItemClickHandlerImpl;
 import com.jodexindustries.donatecase.tools.Tools;
@@ -21,9 +22,7 @@ import org.bukkit.event.block.Action;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.inventory.*;
-import org.bukkit.event.player.PlayerInteractAtEntityEvent;
-import org.bukkit.event.player.PlayerInteractEvent;
-import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.*;
 import org.bukkit.inventory.EquipmentSlot;
 
 import java.util.UUID;
@@ -31,6 +30,10 @@ import java.util.logging.Level;
 
 
 public class EventsListener implements Listener {
+    /**
+     * Ticks after pre-login, after which a session of player, who did not join, is unloaded
+     */
+    private static final long SESSION_JOIN_TIMEOUT = 20 * 30;
 
     @EventHandler
     public void onEntityDamageByEntity(EntityDamageByEntityEvent event) {
@@ -39,6 +42,30 @@ public class EventsListener implements Listener {
         }
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+        String name = event.getName();
+        Case.getDatabase().loadSession(event.getUniqueId(), name);
+
+        PlayerSession session = Case.getDatabase().getSession(name);
+        if (session == null) return;
+        // client may disconnect before login, then neither login nor quit event unloads the session
+        Bukkit.getScheduler().runTaskLater(Case.getInstance(), () -> {
+            if (Bukkit.getPlayerExact(name) == null) Case.getDatabase().unloadSession(name, session);
+        }, SESSION_JOIN_TIMEOUT);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) Case.getDatabase().unloadSession(event.getPlayer().getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        Case.getDatabase().unloadSession(event.getPlayer().getName());
+    }
+
     @EventHandler(priority = EventPriority.HIGH)
     public void onAdminJoined(PlayerJoinEvent event) {
         Player p = event.getPlayer();
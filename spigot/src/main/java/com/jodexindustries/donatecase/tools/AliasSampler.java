@@ -0,0 +1,185 @@
+package com.jodexindustries.donatecase.tools;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable weighted sampler, built with Vose's alias method.
+ * <p>
+ * Building costs O(n), every draw costs O(1): one random column and one biased coin.
+ * Sampler has no mutable state, so it is safe to share between threads,
+ * each thread uses its own random generator.
+ * Like {@link ProbabilityCollection}, weights less than or equal to zero are treated as 1
+ *
+ * @param <E> Type of elements
+ * @since 2.2.6.7
+ */
+public final class AliasSampler<E> {
+    private final Object[] elements;
+    private final double[] probability;
+    private final int[] alias;
+    private final double[] weights;
+    private final double totalWeight;
+
+    /**
+     * Build sampler
+     *
+     * @param elements Elements, not null
+     * @param weights  Weight of every element, must have the same size as elements
+     */
+    public AliasSampler(List<E> elements, double[] weights) {
+        int n = elements.size();
+        if (weights.length != n) throw new IllegalArgumentException("Expected " + n + " weights, got " + weights.length);
+
+        this.elements = elements.toArray();
+        this.weights = new double[n];
+        this.probability = new double[n];
+        this.alias = new int[n];
+
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            if (this.elements[i] == null) throw new IllegalArgumentException("Cannot add null object");
+            this.weights[i] = weights[i] <= 0 ? 1 : weights[i];
+            total += this.weights[i];
+        }
+        this.totalWeight = total;
+
+        // scaled weights: average column is exactly 1
+        double[] scaled = new double[n];
+        Deque<Integer> small = new ArrayDeque<>();
+        Deque<Integer> large = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            scaled[i] = this.weights[i] * n / total;
+            if (scaled[i] < 1) {
+                small.push(i);
+            } else {
+                large.push(i);
+            }
+        }
+
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int less = small.pop();
+            int more = large.pop();
+
+            probability[less] = scaled[less];
+            alias[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+            if (scaled[more] < 1) {
+                small.push(more);
+            } else {
+                large.push(more);
+            }
+        }
+
+        // the rest is 1 up to rounding errors
+        while (!large.isEmpty()) probability[large.pop()] = 1;
+        while (!small.isEmpty()) probability[small.pop()] = 1;
+    }
+
+    /**
+     * Get random element with {@link ThreadLocalRandom}
+     *
+     * @return Random element
+     * @throws IllegalStateException if sampler is empty
+     */
+    public E sample() {
+        return sample(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Get random element
+     *
+     * @param random Random generator of the calling thread
+     * @return Random element
+     * @throws IllegalStateException if sampler is empty
+     */
+    public E sample(Random random) {
+        checkNotEmpty();
+        return pick(random.nextInt(elements.length), random.nextDouble());
+    }
+
+    /**
+     * Get random element
+     *
+     * @param random Random generator of the calling thread
+     * @return Random element
+     * @throws IllegalStateException if sampler is empty
+     */
+    public E sample(SplittableRandom random) {
+        checkNotEmpty();
+        return pick(random.nextInt(elements.length), random.nextDouble());
+    }
+
+    /**
+     * Get random element index, the same as index in list passed to constructor
+     *
+     * @param random Random generator of the calling thread
+     * @return Random index
+     * @throws IllegalStateException if sampler is empty
+     */
+    public int sampleIndex(SplittableRandom random) {
+        checkNotEmpty();
+        int column = random.nextInt(elements.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    /**
+     * Get element by index
+     *
+     * @param index Index in list passed to constructor
+     * @return element
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        return (E) elements[index];
+    }
+
+    /**
+     * Get expected probability of element
+     *
+     * @param index Index in list passed to constructor
+     * @return probability from 0 to 1
+     */
+    public double getProbability(int index) {
+        return weights[index] / totalWeight;
+    }
+
+    /**
+     * Get sum of all weights
+     *
+     * @return total weight
+     */
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * @return Number of elements
+     */
+    public int size() {
+        return elements.length;
+    }
+
+    /**
+     * @return True if sampler contains no elements
+     */
+    public boolean isEmpty() {
+        return elements.length == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E pick(int column, double coin) {
+        return (E) elements[coin < probability[column] ? column : alias[column]];
+    }
+
+    private void checkNotEmpty() {
+        if (elements.length == 0) {
+            throw new IllegalStateException("Cannot get an object out of a empty collection");
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.jodexindustries.donatecase.tools;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory index of created cases from Cases.yml.
+ * <p>
+ * Cases are grouped by world name and keyed by packed block coordinates,
+ * so checking of clicked or broken block costs one hash probe instead of parsing all cases.
+ * Index is rebuilt from Cases.yml section and updated, when case is created or deleted
+ * @since 2.2.6.7
+ */
+public class CaseLocationIndex {
+    private final Map<String, LongObjectMap<Entry>> worlds = new HashMap<>();
+    private final Map<String, Entry> byName = new HashMap<>();
+
+    /**
+     * Replace index content with cases from section
+     *
+     * @param casesSection {@code DonateCase.Cases} section of Cases.yml, may be null
+     */
+    public synchronized void rebuild(@Nullable ConfigurationSection casesSection) {
+        worlds.clear();
+        byName.clear();
+        if (casesSection == null) return;
+
+        for (String name : casesSection.getKeys(false)) {
+            ConfigurationSection caseSection = casesSection.getConfigurationSection(name);
+            if (caseSection == null) continue;
+
+            String location = caseSection.getString("location");
+            if (location == null) continue;
+
+            put(name, caseSection.getString("type"), location);
+        }
+    }
+
+    /**
+     * Add case or replace case with the same name
+     *
+     * @param name     Case name (custom)
+     * @param type     Case type (config)
+     * @param location Location string from Cases.yml: {@code world;x;y;z;pitch;yaw}
+     */
+    public synchronized void put(String name, String type, String location) {
+        remove(name);
+
+        String[] worldLocation = location.split(";");
+        Entry entry;
+        try {
+            entry = new Entry(name, type, worldLocation[0],
+                    Double.parseDouble(worldLocation[1]), Double.parseDouble(worldLocation[2]), Double.parseDouble(worldLocation[3]),
+                    worldLocation.length > 5 ? Float.parseFloat(worldLocation[4]) : 0,
+                    worldLocation.length > 5 ? Float.parseFloat(worldLocation[5]) : 0);
+        } catch (RuntimeException ignored) {
+            return;
+        }
+
+        LongObjectMap<Entry> blocks = worlds.computeIfAbsent(entry.world, world -> new LongObjectMap<>());
+        long key = pack(entry.x, entry.y, entry.z);
+        entry.next = blocks.get(key);
+        blocks.put(key, entry);
+        byName.put(name, entry);
+    }
+
+    /**
+     * Remove case by name
+     *
+     * @param name Case name (custom)
+     */
+    public synchronized void remove(String name) {
+        Entry entry = byName.remove(name);
+        if (entry == null) return;
+
+        LongObjectMap<Entry> blocks = worlds.get(entry.world);
+        if (blocks == null) return;
+
+        long key = pack(entry.x, entry.y, entry.z);
+        Entry head = blocks.get(key);
+        if (head == entry) {
+            if (entry.next == null) {
+                blocks.remove(key);
+            } else {
+                blocks.put(key, entry.next);
+            }
+        } else {
+            for (Entry current = head; current != null; current = current.next) {
+                if (current.next == entry) {
+                    current.next = entry.next;
+                    break;
+                }
+            }
+        }
+        if (blocks.size() == 0) worlds.remove(entry.world);
+    }
+
+    /**
+     * Find case by block location
+     *
+     * @param loc Location, must be equal to case location without pitch and yaw
+     * @return case entry or null, if there is no case
+     */
+    @Nullable
+    public synchronized Entry get(@NotNull Location loc) {
+        if (loc.getPitch() != 0 || loc.getYaw() != 0) return null;
+
+        World world = loc.getWorld();
+        if (world == null) return null;
+
+        LongObjectMap<Entry> blocks = worlds.get(world.getName());
+        if (blocks == null) return null;
+
+        // the newest case is the first, it was also found last, when all cases were iterated
+        for (Entry entry = blocks.get(pack(loc.getX(), loc.getY(), loc.getZ())); entry != null; entry = entry.next) {
+            if (entry.x == loc.getX() && entry.y == loc.getY() && entry.z == loc.getZ()) return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Pack block coordinates to long: 26 bits for x and z, 12 bits for y
+     */
+    private static long pack(double x, double y, double z) {
+        long blockX = (long) Math.floor(x);
+        long blockY = (long) Math.floor(y);
+        long blockZ = (long) Math.floor(z);
+        return ((blockX & 0x3FFFFFFL) << 38) | ((blockZ & 0x3FFFFFFL) << 12) | (blockY & 0xFFFL);
+    }
+
+    /**
+     * Created case
+     */
+    public static class Entry {
+        private final String name;
+        private final String type;
+        private final String world;
+        private final double x;
+        private final double y;
+        private final double z;
+        private final float pitch;
+        private final float yaw;
+        private Entry next;
+
+        private Entry(String name, String type, String world, double x, double y, double z, float pitch, float yaw) {
+            this.name = name;
+            this.type = type;
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.pitch = pitch;
+            this.yaw = yaw;
+        }
+
+        /**
+         * Get case name
+         *
+         * @return case name (custom)
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get case type
+         *
+         * @return case type (config)
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * Get case location with pitch and yaw
+         *
+         * @return new location, world may be null if it is not loaded
+         */
+        public Location getLocation() {
+            return new Location(Bukkit.getWorld(world), x, y, z, yaw, pitch);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.jodexindustries.donatecase.tools;
+
+import com.jodexindustries.donatecase.api.data.CaseData;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks real distribution of case items and random actions.
+ * <p>
+ * Draws are made with the same samplers as case opening.
+ * Work is split between threads of own small pool (half of cores, at most 4), so simulation never takes
+ * all cores or threads of common pool. Every worker has its own generator from {@link SplittableRandom#split()},
+ * so workers do not share any state until results are merged
+ * @since 2.2.6.7
+ */
+public class DropSimulator {
+    private static final int THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    private static final ThreadPoolExecutor executor;
+
+    static {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(THREADS, THREADS, 30L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "DonateCase-Simulator-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        // threads are only alive while simulating
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private DropSimulator() {}
+
+    /**
+     * Simulate case openings off the main thread
+     *
+     * @param caseData   Case data
+     * @param iterations Number of openings
+     * @return CompletableFuture of simulation result
+     */
+    public static CompletableFuture<Result> simulate(@NotNull CaseData caseData, long iterations) {
+        AliasSampler<CaseData.Item> sampler = caseData.getItemSampler();
+        if (sampler.isEmpty()) throw new IllegalArgumentException("Case " + caseData.getCaseType() + " has no items");
+        if (iterations <= 0) throw new IllegalArgumentException("Iterations must be positive: " + iterations);
+
+        List<AliasSampler<String>> actionSamplers = new ArrayList<>(sampler.size());
+        for (int i = 0; i < sampler.size(); i++) {
+            CaseData.Item item = sampler.get(i);
+            AliasSampler<String> actions = item.getGiveType().equalsIgnoreCase("ONE") ? null : item.getRandomActionSampler();
+            actionSamplers.add(actions == null || actions.isEmpty() ? null : actions);
+        }
+
+        int workers = (int) Math.max(1, Math.min(THREADS, iterations / 10_000));
+        SplittableRandom root = new SplittableRandom();
+        List<CompletableFuture<Counts>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            long draws = iterations / workers + (i < iterations % workers ? 1 : 0);
+            SplittableRandom random = root.split();
+            futures.add(CompletableFuture.supplyAsync(() -> draw(sampler, actionSamplers, random, draws), executor));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Counts total = new Counts(sampler, actionSamplers);
+            for (CompletableFuture<Counts> future : futures) {
+                total.merge(future.join());
+            }
+            return new Result(caseData.getCaseType(), iterations, workers, sampler, actionSamplers, total);
+        });
+    }
+
+    private static Counts draw(AliasSampler<CaseData.Item> sampler, List<AliasSampler<String>> actionSamplers,
+                               SplittableRandom random, long draws) {
+        Counts counts = new Counts(sampler, actionSamplers);
+        long start = System.nanoTime();
+        for (long i = 0; i < draws; i++) {
+            int index = sampler.sampleIndex(random);
+            counts.items[index]++;
+
+            AliasSampler<String> actions = actionSamplers.get(index);
+            if (actions != null) counts.actions[index][actions.sampleIndex(random)]++;
+        }
+        counts.nanos = System.nanoTime() - start;
+        return counts;
+    }
+
+    private static final class Counts {
+        private final long[] items;
+        private final long[][] actions;
+        private long nanos;
+
+        private Counts(AliasSampler<CaseData.Item> sampler, List<AliasSampler<String>> actionSamplers) {
+            this.items = new long[sampler.size()];
+            this.actions = new long[sampler.size()][];
+            for (int i = 0; i < actions.length; i++) {
+                AliasSampler<String> actionSampler = actionSamplers.get(i);
+                actions[i] = new long[actionSampler == null ? 0 : actionSampler.size()];
+            }
+        }
+
+        private void merge(Counts other) {
+            for (int i = 0; i < items.length; i++) {
+                items[i] += other.items[i];
+                for (int j = 0; j < actions[i].length; j++) {
+                    actions[i][j] += other.actions[i][j];
+                }
+            }
+            nanos += other.nanos;
+        }
+    }
+
+    /**
+     * Observed and configured rates of simulation
+     */
+    public static class Result {
+        private final String caseType;
+        private final long iterations;
+        private final int workers;
+        private final double nanosPerDraw;
+        private final List<Rate> items = new ArrayList<>();
+        private final Map<String, Rate> groups = new LinkedHashMap<>();
+        private final Map<String, List<Rate>> randomActions = new LinkedHashMap<>();
+
+        private Result(String caseType, long iterations, int workers, AliasSampler<CaseData.Item> sampler,
+                       List<AliasSampler<String>> actionSamplers, Counts counts) {
+            this.caseType = caseType;
+            this.iterations = iterations;
+            this.workers = workers;
+            this.nanosPerDraw = (double) counts.nanos / iterations;
+
+            Map<String, double[]> groupRates = new LinkedHashMap<>();
+            for (int i = 0; i < sampler.size(); i++) {
+                CaseData.Item item = sampler.get(i);
+                double observed = (double) counts.items[i] / iterations;
+                double expected = sampler.getProbability(i);
+                items.add(new Rate(item.getItemName(), expected, observed));
+
+                double[] group = groupRates.computeIfAbsent(item.getGroup(), name -> new double[2]);
+                group[0] += expected;
+                group[1] += observed;
+
+                AliasSampler<String> actions = actionSamplers.get(i);
+                if (actions == null || counts.items[i] == 0) continue;
+
+                List<Rate> actionRates = new ArrayList<>(actions.size());
+                for (int j = 0; j < actions.size(); j++) {
+                    actionRates.add(new Rate(actions.get(j), actions.getProbability(j),
+                            (double) counts.actions[i][j] / counts.items[i]));
+                }
+                randomActions.put(item.getItemName(), actionRates);
+            }
+            groupRates.forEach((group, rates) -> groups.put(group, new Rate(group, rates[0], rates[1])));
+        }
+
+        /**
+         * @return Simulated case type
+         */
+        public String getCaseType() {
+            return caseType;
+        }
+
+        /**
+         * @return Number of simulated openings
+         */
+        public long getIterations() {
+            return iterations;
+        }
+
+        /**
+         * @return Number of parallel workers
+         */
+        public int getWorkers() {
+            return workers;
+        }
+
+        /**
+         * Average time of one draw inside of a worker, including random action draw
+         *
+         * @return nanoseconds per draw
+         */
+        public double getNanosPerDraw() {
+            return nanosPerDraw;
+        }
+
+        /**
+         * @return Rates of every item
+         */
+        public List<Rate> getItems() {
+            return items;
+        }
+
+        /**
+         * @return Rates of every item group, sum of its items
+         */
+        public Map<String, Rate> getGroups() {
+            return groups;
+        }
+
+        /**
+         * Rates of random actions, relative to openings of item
+         *
+         * @return Map of item name and random action rates
+         */
+        public Map<String, List<Rate>> getRandomActions() {
+            return randomActions;
+        }
+    }
+
+    /**
+     * Configured and observed rate of one element
+     */
+    public static class Rate {
+        private final String name;
+        private final double expected;
+        private final double observed;
+
+        private Rate(String name, double expected, double observed) {
+            this.name = name;
+            this.expected = expected;
+            this.observed = observed;
+        }
+
+        /**
+         * @return Item, group or random action name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return Configured rate from 0 to 1
+         */
+        public double getExpected() {
+            return expected;
+        }
+
+        /**
+         * @return Observed rate from 0 to 1
+         */
+        public double getObserved() {
+            return observed;
+        }
+    }
+}
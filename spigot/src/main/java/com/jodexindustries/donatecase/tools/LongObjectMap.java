@@ -0,0 +1,162 @@
+package com.jodexindustries.donatecase.tools;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map with primitive long keys.
+ * <p>
+ * Keys are not boxed, so lookup allocates nothing and costs one or few array probes.
+ * Not thread-safe
+ *
+ * @param <V> Value type
+ * @since 2.2.6.7
+ */
+public class LongObjectMap<V> {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+
+    /**
+     * Default constructor
+     */
+    public LongObjectMap() {
+        this(16);
+    }
+
+    /**
+     * Create map with expected number of entries
+     *
+     * @param expected Expected number of entries
+     */
+    public LongObjectMap(int expected) {
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < expected) capacity <<= 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Get value of key
+     *
+     * @param key Key for getting
+     * @return value or null, if absent
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    /**
+     * Put value for key
+     *
+     * @param key   Key for putting
+     * @param value Value for putting, not null
+     * @return previous value or null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) throw new IllegalArgumentException("Value can not be null");
+
+        int slot = slot(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length * LOAD_FACTOR) rehash(keys.length << 1);
+        return null;
+    }
+
+    /**
+     * Remove value of key
+     *
+     * @param key Key for removing
+     * @return removed value or null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) return null;
+
+        V previous = (V) values[index];
+        values[index] = null;
+        size--;
+
+        // shift following entries back, so probing does not stop at the removed slot
+        int free = index;
+        int slot = (index + 1) & mask;
+        while (values[slot] != null) {
+            int home = slot(keys[slot]);
+            if (((slot - home) & mask) >= ((slot - free) & mask)) {
+                keys[free] = keys[slot];
+                values[free] = values[slot];
+                values[slot] = null;
+                free = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return previous;
+    }
+
+    /**
+     * Get number of entries
+     *
+     * @return number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int indexOf(long key) {
+        int slot = slot(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) put(oldKeys[i], (V) oldValues[i]);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.jodexindustries.donatecase.tools;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of named values with lookup by the longest registered name, which a text starts with.
+ * <p>
+ * Shared by managers of actions, materials and GUI typed items.
+ * Every registration and unregistration, even through {@link #getMap()}, increments the version,
+ * and {@link PrefixTrie} is built again on the next lookup after that
+ *
+ * @param <V> Type of registered values
+ * @since 2.2.6.7
+ */
+public final class PrefixRegistry<V> {
+    private final AtomicInteger version = new AtomicInteger();
+    private final Map<String, V> map = VersionedMap.of(new HashMap<>(), version);
+    private volatile Built built;
+
+    /**
+     * Get mutable map of registered values, its changes are seen by prefix lookup
+     *
+     * @return registered values by name
+     */
+    @NotNull
+    public Map<String, V> getMap() {
+        return map;
+    }
+
+    /**
+     * Register value, if name is free
+     *
+     * @param name  Name
+     * @param value Value
+     * @return true, if registered
+     */
+    public boolean register(@NotNull String name, @NotNull V value) {
+        if (map.containsKey(name)) return false;
+        map.put(name, value);
+        return true;
+    }
+
+    /**
+     * Unregister value
+     *
+     * @param name Name
+     * @return removed value or null, if it was not registered
+     */
+    @Nullable
+    public V unregister(@NotNull String name) {
+        return map.remove(name);
+    }
+
+    /**
+     * Get registered value
+     *
+     * @param name Name
+     * @return value or null, if not registered
+     */
+    @Nullable
+    public V get(@NotNull String name) {
+        return map.get(name);
+    }
+
+    /**
+     * Check for registration
+     *
+     * @param name Name
+     * @return true, if registered
+     */
+    public boolean isRegistered(String name) {
+        return map.containsKey(name);
+    }
+
+    /**
+     * Get version of registry, it is changed on every registration and unregistration
+     *
+     * @return version
+     */
+    public int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Find the longest registered name, which the text starts with
+     *
+     * @param text Text to be parsed
+     * @return name or null, if text does not start with any name
+     */
+    @Nullable
+    public String longestPrefixOf(@NotNull CharSequence text) {
+        Built current = built;
+        int currentVersion = version.get();
+        if (current == null || current.version != currentVersion) {
+            current = new Built(new PrefixTrie(map.keySet()), currentVersion);
+            built = current;
+        }
+        return current.trie.longestPrefixOf(text);
+    }
+
+    private static final class Built {
+        private final PrefixTrie trie;
+        private final int version;
+
+        private Built(PrefixTrie trie, int version) {
+            this.trie = trie;
+            this.version = version;
+        }
+    }
+}
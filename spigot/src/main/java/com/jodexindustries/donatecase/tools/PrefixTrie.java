@@ -0,0 +1,103 @@
+package com.jodexindustries.donatecase.tools;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable prefix tree of registered names.
+ * <p>
+ * Finds the longest name, which the text starts with, walking the text once,
+ * so the result does not depend on registration order or on the number of registered names.
+ * Trie is not changed after building, so it is safe to share between threads,
+ * registries build a new trie when names are registered or unregistered
+ * @since 2.2.6.7
+ */
+public final class PrefixTrie {
+    private final Node root = new Node();
+    private final int size;
+
+    /**
+     * Build trie
+     *
+     * @param words Names for matching, null and empty names are skipped
+     */
+    public PrefixTrie(@NotNull Collection<String> words) {
+        int size = 0;
+        for (String word : words) {
+            if (word == null || word.isEmpty()) continue;
+
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.getOrCreate(word.charAt(i));
+            }
+            if (node.word == null) size++;
+            node.word = word;
+        }
+        this.size = size;
+    }
+
+    /**
+     * Find the longest name, which the text starts with
+     *
+     * @param text Text to be parsed
+     * @return name or null, if text does not start with any name
+     */
+    @Nullable
+    public String longestPrefixOf(@NotNull CharSequence text) {
+        String found = null;
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = node.get(text.charAt(i));
+            if (node == null) break;
+            if (node.word != null) found = node.word;
+        }
+        return found;
+    }
+
+    /**
+     * Get number of names
+     *
+     * @return number of names
+     */
+    public int size() {
+        return size;
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // sorted by key, so lookup is a binary search
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private String word;
+
+        private Node get(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index < 0 ? null : children[index];
+        }
+
+        private Node getOrCreate(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) return children[index];
+
+            int insert = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insert);
+            System.arraycopy(children, 0, newChildren, 0, insert);
+            System.arraycopy(keys, insert, newKeys, insert + 1, keys.length - insert);
+            System.arraycopy(children, insert, newChildren, insert + 1, children.length - insert);
+
+            Node node = new Node();
+            newKeys[insert] = c;
+            newChildren[insert] = node;
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+    }
+}
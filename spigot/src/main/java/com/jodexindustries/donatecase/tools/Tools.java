@@ -8,6 +8,7 @@ import com.jodexindustries.donatecase.api.data.material.CaseMaterial;
 import com.jodexindustries.donatecase.api.data.subcommand.SubCommand;
 import com.jodexindustries.donatecase.api.armorstand.ArmorStandCreator;
 import com.jodexindustries.donatecase.api.armorstand.BukkitArmorStandCreator;
+import com.jodexindustries.donatecase.api.armorstand.DisplayArmorStandCreator;
 import com.jodexindustries.donatecase.api.armorstand.PacketArmorStandCreator;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -36,9 +37,12 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class Tools {
+    private static final Pattern HEX_PATTERN = Pattern.compile("#[a-fA-F0-9]{6}");
+    private static final Pattern COOLDOWN_PATTERN = Pattern.compile("\\[cooldown:(.*?)]");
 
     public static ArmorStandCreator createArmorStand(Location location) {
         if(Case.getInstance().usePackets) {
+            if(DisplayArmorStandCreator.isEnabled()) return new DisplayArmorStandCreator(location);
             return new PacketArmorStandCreator(location);
         } else {
             return new BukkitArmorStandCreator(location);
@@ -196,8 +200,7 @@ public class Tools {
      * @return String with format
      */
     public static String hex(String message) {
-        Pattern pattern = Pattern.compile("#[a-fA-F0-9]{6}");
-        Matcher matcher = pattern.matcher(message);
+        Matcher matcher = HEX_PATTERN.matcher(message);
         while (matcher.find()) {
             String hexCode = message.substring(matcher.start(), matcher.end());
             String replaceSharp = hexCode.replace('#', 'x');
@@ -209,7 +212,7 @@ public class Tools {
             }
 
             message = message.replace(hexCode, builder.toString());
-            matcher = pattern.matcher(message);
+            matcher = HEX_PATTERN.matcher(message);
         }
         return ChatColor.translateAlternateColorCodes('&', message);
     }
@@ -340,8 +343,7 @@ public class Tools {
      * @return cooldown
      */
     public static int extractCooldown(String action) {
-        Pattern pattern = Pattern.compile("\\[cooldown:(.*?)]");
-        Matcher matcher = pattern.matcher(action);
+        Matcher matcher = COOLDOWN_PATTERN.matcher(action);
         if (matcher.find()) {
             return Integer.parseInt(matcher.group(1));
         }
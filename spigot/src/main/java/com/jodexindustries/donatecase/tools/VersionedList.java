@@ -0,0 +1,83 @@
+package com.jodexindustries.donatecase.tools;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mutable list view, which increments a version counter on every change.
+ * <p>
+ * Like {@link VersionedMap}, used for lists returned by getters of case data,
+ * so values parsed from them can be cached and still see {@code set} of one element,
+ * which does not change identity or size of the list.
+ * Not thread-safe, like the list behind it
+ *
+ * @param <E> Type of elements
+ * @since 2.2.6.7
+ */
+public final class VersionedList<E> extends AbstractList<E> implements RandomAccess {
+    private final List<E> list;
+    private final AtomicInteger version = new AtomicInteger();
+
+    private VersionedList(List<E> list) {
+        this.list = list;
+    }
+
+    /**
+     * Wrap list, which is not wrapped yet
+     *
+     * @param list List to wrap, changes go through to it
+     * @param <E>  Type of elements
+     * @return wrapped list or null, if list is null
+     */
+    @Nullable
+    public static <E> VersionedList<E> of(@Nullable List<E> list) {
+        if (list == null) return null;
+        if (list instanceof VersionedList) list = ((VersionedList<E>) list).list;
+        return new VersionedList<>(list);
+    }
+
+    /**
+     * Get number of changes made to this list
+     *
+     * @return version
+     */
+    public int getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public E get(int index) {
+        return list.get(index);
+    }
+
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+    @Override
+    public E set(int index, E element) {
+        E previous = list.set(index, element);
+        version.incrementAndGet();
+        return previous;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        list.add(index, element);
+        version.incrementAndGet();
+        modCount++;
+    }
+
+    @Override
+    public E remove(int index) {
+        E previous = list.remove(index);
+        version.incrementAndGet();
+        modCount++;
+        return previous;
+    }
+}
@@ -0,0 +1,152 @@
+package com.jodexindustries.donatecase.tools;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mutable map view, which increments a version counter on every change.
+ * <p>
+ * Used for maps returned by getters of case data, so values built from them
+ * (for example {@link AliasSampler}) can be cached and still see {@code put} of an existing key,
+ * which does not change identity or size of the map.
+ * Changes made through entry set, key set, values and their iterators are counted too.
+ * Not thread-safe, like the map behind it
+ *
+ * @param <K> Type of keys
+ * @param <V> Type of values
+ * @since 2.2.6.7
+ */
+public final class VersionedMap<K, V> extends AbstractMap<K, V> {
+    private final Map<K, V> map;
+    private final AtomicInteger version;
+    private final Set<Entry<K, V>> entrySet = new EntrySet();
+
+    private VersionedMap(Map<K, V> map, AtomicInteger version) {
+        this.map = map;
+        this.version = version;
+    }
+
+    /**
+     * Wrap map, which is not wrapped yet
+     *
+     * @param map     Map to wrap, changes go through to it
+     * @param version Counter, which is incremented on every change
+     * @param <K>     Type of keys
+     * @param <V>     Type of values
+     * @return wrapped map or null, if map is null
+     */
+    @Nullable
+    public static <K, V> VersionedMap<K, V> of(@Nullable Map<K, V> map, @NotNull AtomicInteger version) {
+        if (map == null) return null;
+        if (map instanceof VersionedMap) map = ((VersionedMap<K, V>) map).map;
+        return new VersionedMap<>(map, version);
+    }
+
+    /**
+     * Get counter, which is incremented on every change
+     *
+     * @return version counter
+     */
+    public AtomicInteger getVersion() {
+        return version;
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return map.containsValue(value);
+    }
+
+    @Override
+    public V get(Object key) {
+        return map.get(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        V previous = map.put(key, value);
+        version.incrementAndGet();
+        return previous;
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!map.containsKey(key)) return null;
+        V previous = map.remove(key);
+        version.incrementAndGet();
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        if (map.isEmpty()) return;
+        map.clear();
+        version.incrementAndGet();
+    }
+
+    @NotNull
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @NotNull
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            Iterator<Entry<K, V>> iterator = map.entrySet().iterator();
+            return new Iterator<Entry<K, V>>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Entry<K, V> next() {
+                    Entry<K, V> entry = iterator.next();
+                    return new SimpleEntry<K, V>(entry) {
+                        @Override
+                        public V setValue(V value) {
+                            super.setValue(value);
+                            V previous = entry.setValue(value);
+                            version.incrementAndGet();
+                            return previous;
+                        }
+                    };
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                    version.incrementAndGet();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public void clear() {
+            VersionedMap.this.clear();
+        }
+    }
+}
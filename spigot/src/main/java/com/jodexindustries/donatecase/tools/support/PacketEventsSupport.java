@@ -3,6 +3,7 @@ package com.jodexindustries.donatecase.tools.support;
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.manager.server.ServerVersion;
 import com.jodexindustries.donatecase.DonateCase;
+import com.jodexindustries.donatecase.api.armorstand.PacketViewers;
 import com.jodexindustries.donatecase.tools.Logger;
 import io.github.retrooper.packetevents.factory.spigot.SpigotPacketEventsBuilder;
 import me.tofaa.entitylib.APIConfig;
@@ -35,6 +36,7 @@ public class PacketEventsSupport {
             if (PacketEvents.getAPI().isLoaded()) {
                 Logger.log("&aHooked to &bpacketevents");
                 DonateCase.instance.usePackets = true;
+                PacketViewers.register(plugin);
             }
         }
     }
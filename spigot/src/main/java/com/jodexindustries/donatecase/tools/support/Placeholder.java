@@ -1,11 +1,14 @@
 package com.jodexindustries.donatecase.tools.support;
 
 import com.jodexindustries.donatecase.api.Case;
+import com.jodexindustries.donatecase.api.caching.CacheStats;
+import com.jodexindustries.donatecase.api.caching.ConcurrentCache;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 
 import java.text.NumberFormat;
+import java.util.Locale;
 
 public class Placeholder extends PlaceholderExpansion {
 
@@ -35,17 +38,67 @@ public class Placeholder extends PlaceholderExpansion {
         if (params.startsWith("open_count")) {
             return processOpenCount(params, player);
         }
+
+        if (params.startsWith("cache_")) {
+            return processCacheStats(params);
+        }
         return null;
     }
 
+    /**
+     * %DonateCase_cache_(keys|open|history)_(hits|misses|hitrate|evictions|loads|failures|avgload|p50|p95|p99|size)%
+     */
+    private String processCacheStats(@NotNull String params) {
+        String[] parts = params.split("_", 3);
+        if (parts.length < 3) return null;
+
+        ConcurrentCache<?, ?> cache = Case.getCaches().get(parts[1].toLowerCase());
+        if (cache == null) return null;
+
+        CacheStats stats = cache.getStats();
+        switch (parts[2].toLowerCase()) {
+            case "hits":
+                return String.valueOf(stats.getHits());
+            case "misses":
+                return String.valueOf(stats.getMisses());
+            case "hitrate":
+                return String.format(Locale.ROOT, "%.1f", stats.getHitRate() * 100);
+            case "evictions":
+                return String.valueOf(stats.getEvictions());
+            case "loads":
+                return String.valueOf(stats.getLoads());
+            case "failures":
+                return String.valueOf(stats.getLoadFailures());
+            case "avgload":
+                return String.format(Locale.ROOT, "%.2f", stats.getAverageLoadTime());
+            case "p50":
+                return String.valueOf(stats.getLoadTimePercentile(50));
+            case "p95":
+                return String.valueOf(stats.getLoadTimePercentile(95));
+            case "p99":
+                return String.valueOf(stats.getLoadTimePercentile(99));
+            case "size":
+                return String.valueOf(cache.size());
+            default:
+                return null;
+        }
+    }
+
     private String processKeys(@NotNull String params, OfflinePlayer player) {
         if (params.startsWith("keys")) {
             String[] parts = params.split("_", 2);
             int keys = 0;
+            boolean loading = false;
+            // all cases are requested, so they are loaded together
             for (String caseType : Case.caseData.keySet()) {
-                int cachedKeys = Case.getKeysCache(caseType, player.getName());
-                keys += cachedKeys;
+                Integer cachedKeys = Case.getKeysCacheIfLoaded(caseType, player.getName());
+                if (cachedKeys == null) {
+                    loading = true;
+                } else {
+                    keys += cachedKeys;
+                }
             }
+            if (loading) return Case.getCacheLoadingPlaceholder();
             if (parts.length == 1) {
                 return String.valueOf(keys);
             } else if (parts[1].equalsIgnoreCase("format")) {
@@ -55,7 +108,8 @@ public class Placeholder extends PlaceholderExpansion {
 
         if (params.startsWith("keys_")) {
             String[] parts = params.split("_", 3);
-            int keys = Case.getKeysCache(parts[1], player.getName());
+            Integer keys = Case.getKeysCacheIfLoaded(parts[1], player.getName());
+            if (keys == null) return Case.getCacheLoadingPlaceholder();
             if (parts.length == 2) {
                 return String.valueOf(keys);
             } else if (parts[2].equalsIgnoreCase("format")) {
@@ -71,9 +125,16 @@ public class Placeholder extends PlaceholderExpansion {
         if (params.startsWith("open_count")) {
             String[] parts = params.split("_", 3);
             int openCount = 0;
+            boolean loading = false;
             for (String caseType : Case.caseData.keySet()) {
-                openCount += Case.getOpenCountCache(caseType, player.getName());
+                Integer cachedCount = Case.getOpenCountCacheIfLoaded(caseType, player.getName());
+                if (cachedCount == null) {
+                    loading = true;
+                } else {
+                    openCount += cachedCount;
+                }
             }
+            if (loading) return Case.getCacheLoadingPlaceholder();
             if (parts.length == 2) {
                 return String.valueOf(openCount);
             } else if (parts[2].equalsIgnoreCase("format")) {
@@ -85,7 +146,8 @@ public class Placeholder extends PlaceholderExpansion {
 
         if (params.startsWith("open_count_")) {
             String[] parts = params.split("_", 4);
-            Integer cachedCount = Case.getOpenCountCache(parts[2], player.getName());
+            Integer cachedCount = Case.getOpenCountCacheIfLoaded(parts[2], player.getName());
+            if (cachedCount == null) return Case.getCacheLoadingPlaceholder();
             if (parts.length == 3) {
                 return String.valueOf(cachedCount);
             } else if (parts[3].equalsIgnoreCase("format")) {